@@ -0,0 +1,89 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import org.macroing.java.lang.Doubles;
+
+final class VectorSlabKernel implements AccelerationStructure.SlabKernel {
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_256;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public VectorSlabKernel() {
+		if(DoubleVector.SPECIES_PREFERRED.vectorBitSize() < SPECIES.vectorBitSize()) {
+			throw new UnsupportedOperationException("DoubleVector.SPECIES_PREFERRED.vectorBitSize() < " + SPECIES.vectorBitSize());
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Override
+	public boolean isSupported(final int width) {
+		return width % SPECIES.length() == 0;
+	}
+	
+	@Override
+	public void intersection(final double[] bounds, final int offset, final int width, final double oX, final double oY, final double oZ, final double dRecX, final double dRecY, final double dRecZ, final double tMaximum, final double[] ts) {
+		for(int lane = 0; lane < width; lane += SPECIES.length()) {
+			final DoubleVector tX0 = DoubleVector.fromArray(SPECIES, bounds, offset + width * 0 + lane).sub(oX).mul(dRecX);
+			final DoubleVector tY0 = DoubleVector.fromArray(SPECIES, bounds, offset + width * 1 + lane).sub(oY).mul(dRecY);
+			final DoubleVector tZ0 = DoubleVector.fromArray(SPECIES, bounds, offset + width * 2 + lane).sub(oZ).mul(dRecZ);
+			final DoubleVector tX1 = DoubleVector.fromArray(SPECIES, bounds, offset + width * 3 + lane).sub(oX).mul(dRecX);
+			final DoubleVector tY1 = DoubleVector.fromArray(SPECIES, bounds, offset + width * 4 + lane).sub(oY).mul(dRecY);
+			final DoubleVector tZ1 = DoubleVector.fromArray(SPECIES, bounds, offset + width * 5 + lane).sub(oZ).mul(dRecZ);
+			
+			doIntersection(tX0, tY0, tZ0, tX1, tY1, tZ1, tMaximum).intoArray(ts, lane);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static DoubleVector doIntersection(final DoubleVector tX0, final DoubleVector tY0, final DoubleVector tZ0, final DoubleVector tX1, final DoubleVector tY1, final DoubleVector tZ1, final double tMaximum) {
+		final VectorMask<Double> tXMask = tX0.lt(tX1);
+		final VectorMask<Double> tYMask = tY0.lt(tY1);
+		final VectorMask<Double> tZMask = tZ0.lt(tZ1);
+		
+		final DoubleVector tXNear = tX1.blend(tX0, tXMask);
+		final DoubleVector tXFar = tX0.blend(tX1, tXMask);
+		final DoubleVector tYNear = tY1.blend(tY0, tYMask);
+		final DoubleVector tYFar = tY0.blend(tY1, tYMask);
+		final DoubleVector tZNear = tZ1.blend(tZ0, tZMask);
+		final DoubleVector tZFar = tZ0.blend(tZ1, tZMask);
+		
+		DoubleVector tNear = DoubleVector.broadcast(SPECIES, Doubles.MIN_VALUE);
+		DoubleVector tFar = DoubleVector.broadcast(SPECIES, Doubles.MAX_VALUE);
+		
+		tNear = tNear.blend(tXNear, tXNear.compare(VectorOperators.GT, tNear));
+		tNear = tNear.blend(tYNear, tYNear.compare(VectorOperators.GT, tNear));
+		tNear = tNear.blend(tZNear, tZNear.compare(VectorOperators.GT, tNear));
+		
+		tFar = tFar.blend(tXFar, tXFar.lt(tFar));
+		tFar = tFar.blend(tYFar, tYFar.lt(tFar));
+		tFar = tFar.blend(tZFar, tZFar.lt(tFar));
+		
+		final VectorMask<Double> miss = tNear.compare(VectorOperators.GT, tFar).or(tFar.lt(0.0D)).or(tNear.compare(VectorOperators.GT, tMaximum));
+		
+		return tNear.blend(Doubles.NaN, miss);
+	}
+}
\ No newline at end of file
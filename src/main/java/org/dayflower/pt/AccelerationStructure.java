@@ -0,0 +1,1820 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.bv.ibv.InfiniteBoundingVolume3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+import org.macroing.java.util.Lists;
+
+public abstract class AccelerationStructure {
+	protected AccelerationStructure() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public abstract BoundingVolume3D getBoundingVolume();
+	
+	public abstract Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum);
+	
+	public abstract boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum);
+	
+	public double intersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+		final Optional<Intersection> optionalIntersection = intersection(rayWS, tMinimum, tMaximum);
+		
+		return optionalIntersection.isPresent() ? optionalIntersection.get().getTWS() : Doubles.NaN;
+	}
+	
+	public abstract int getNodeCount();
+	
+	public abstract long getBuildTimeMillis();
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static AccelerationStructure boundingVolumeHierarchy(final List<? extends Intersectable> primitives) {
+		return BoundingVolumeHierarchy.create(primitives, null);
+	}
+	
+	public static AccelerationStructure boundingVolumeHierarchyParallel(final List<? extends Intersectable> primitives) {
+		return boundingVolumeHierarchyParallel(primitives, ForkJoinPool.commonPool());
+	}
+	
+	public static AccelerationStructure boundingVolumeHierarchyParallel(final List<? extends Intersectable> primitives, final ForkJoinPool forkJoinPool) {
+		return BoundingVolumeHierarchy.create(primitives, Objects.requireNonNull(forkJoinPool, "forkJoinPool == null"));
+	}
+	
+	public static AccelerationStructure boundingVolumeHierarchyFlattened(final List<? extends Intersectable> primitives) {
+		return boundingVolumeHierarchyFlattened(primitives, ForkJoinPool.commonPool());
+	}
+	
+	public static AccelerationStructure boundingVolumeHierarchyFlattened(final List<? extends Intersectable> primitives, final ForkJoinPool forkJoinPool) {
+		return FlattenedBoundingVolumeHierarchy.create(primitives, Objects.requireNonNull(forkJoinPool, "forkJoinPool == null"));
+	}
+	
+	public static AccelerationStructure boundingVolumeHierarchyWide(final List<? extends Intersectable> primitives) {
+		return boundingVolumeHierarchyWide(primitives, 4);
+	}
+	
+	public static AccelerationStructure boundingVolumeHierarchyWide(final List<? extends Intersectable> primitives, final int width) {
+		return boundingVolumeHierarchyWide(primitives, width, ForkJoinPool.commonPool());
+	}
+	
+	public static AccelerationStructure boundingVolumeHierarchyWide(final List<? extends Intersectable> primitives, final int width, final ForkJoinPool forkJoinPool) {
+		return WideBoundingVolumeHierarchy.create(primitives, Ints.requireRange(width, 2, 8, "width"), Objects.requireNonNull(forkJoinPool, "forkJoinPool == null"));
+	}
+	
+	public static AccelerationStructure linear(final List<? extends Intersectable> primitives) {
+		return new Linear(primitives);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class BoundingVolumeHierarchy extends AccelerationStructure {
+		private static final double COST_INTERSECTION = 1.0D;
+		private static final double COST_TRAVERSAL = 0.125D;
+		private static final int BIN_COUNT = 16;
+		private static final int CHUNK_SIZE = 1 << 14;
+		private static final int PARALLEL_BINNING_THRESHOLD = 1 << 16;
+		private static final int PARALLEL_BUILD_THRESHOLD = 1 << 10;
+		private static final int PRIMITIVE_COUNT_MAXIMUM = 8;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final BoundingVolume3D boundingVolume;
+		private final Node node;
+		private final Intersectable[] primitivesUnbounded;
+		private final ThreadLocal<Stack> stacks;
+		private final int nodeCount;
+		private final long buildTimeMillis;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private BoundingVolumeHierarchy(final BoundingVolume3D boundingVolume, final Node node, final Intersectable[] primitivesUnbounded, final int depth, final int nodeCount, final long buildTimeMillis) {
+			this.boundingVolume = boundingVolume;
+			this.node = node;
+			this.primitivesUnbounded = primitivesUnbounded;
+			this.stacks = ThreadLocal.withInitial(() -> new Stack(depth + 1));
+			this.nodeCount = nodeCount;
+			this.buildTimeMillis = buildTimeMillis;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public BoundingVolume3D getBoundingVolume() {
+			return this.boundingVolume;
+		}
+		
+		@Override
+		public int getNodeCount() {
+			return this.nodeCount;
+		}
+		
+		@Override
+		public long getBuildTimeMillis() {
+			return this.buildTimeMillis;
+		}
+		
+		@Override
+		public Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			final Stack stack = this.stacks.get();
+			
+			final Shape.Hit hit = stack.hit;
+			
+			Intersectable intersectable = null;
+			
+			double t = tMaximum;
+			
+			for(final Intersectable primitive : this.primitivesUnbounded) {
+				final double tPrimitive = primitive.intersectionT(rayWS, tMinimum, t, hit);
+				
+				if(!Doubles.isNaN(tPrimitive)) {
+					intersectable = primitive;
+					
+					t = tPrimitive;
+				}
+			}
+			
+			if(this.node == null) {
+				return intersectable != null ? intersectable.createIntersection(rayWS, t, tMinimum, tMaximum, hit) : Optional.empty();
+			}
+			
+			final Point3D o = rayWS.getOrigin();
+			
+			final Vector3D d = rayWS.getDirection();
+			
+			final double oX = o.x;
+			final double oY = o.y;
+			final double oZ = o.z;
+			final double dRecX = 1.0D / d.x;
+			final double dRecY = 1.0D / d.y;
+			final double dRecZ = 1.0D / d.z;
+			
+			final Node[] nodes = stack.nodes;
+			
+			final double[] ts = stack.ts;
+			
+			final double tNode = this.node.intersection(oX, oY, oZ, dRecX, dRecY, dRecZ, t);
+			
+			if(Doubles.isNaN(tNode)) {
+				return intersectable != null ? intersectable.createIntersection(rayWS, t, tMinimum, tMaximum, hit) : Optional.empty();
+			}
+			
+			nodes[0] = this.node;
+			
+			ts[0] = tNode;
+			
+			int size = 1;
+			
+			while(size > 0) {
+				size--;
+				
+				final Node node = nodes[size];
+				
+				if(ts[size] > t) {
+					continue;
+				}
+				
+				if(node instanceof LeafNode) {
+					for(final Intersectable primitive : LeafNode.class.cast(node).primitives) {
+						final double tPrimitive = primitive.intersectionT(rayWS, tMinimum, t, hit);
+						
+						if(!Doubles.isNaN(tPrimitive)) {
+							intersectable = primitive;
+							
+							t = tPrimitive;
+						}
+					}
+				} else {
+					final TreeNode treeNode = TreeNode.class.cast(node);
+					
+					final Node nodeL = treeNode.nodeL;
+					final Node nodeR = treeNode.nodeR;
+					
+					final double tL = nodeL.intersection(oX, oY, oZ, dRecX, dRecY, dRecZ, t);
+					final double tR = nodeR.intersection(oX, oY, oZ, dRecX, dRecY, dRecZ, t);
+					
+					final boolean isHittingL = !Doubles.isNaN(tL);
+					final boolean isHittingR = !Doubles.isNaN(tR);
+					
+					if(isHittingL && isHittingR) {
+						final boolean isNearestL = tL <= tR;
+						
+						nodes[size] = isNearestL ? nodeR : nodeL;
+						ts[size] = isNearestL ? tR : tL;
+						size++;
+						
+						nodes[size] = isNearestL ? nodeL : nodeR;
+						ts[size] = isNearestL ? tL : tR;
+						size++;
+					} else if(isHittingL) {
+						nodes[size] = nodeL;
+						ts[size] = tL;
+						size++;
+					} else if(isHittingR) {
+						nodes[size] = nodeR;
+						ts[size] = tR;
+						size++;
+					}
+				}
+			}
+			
+			return intersectable != null ? intersectable.createIntersection(rayWS, t, tMinimum, tMaximum, hit) : Optional.empty();
+		}
+		
+		@Override
+		public boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			for(final Intersectable primitive : this.primitivesUnbounded) {
+				if(primitive.intersects(rayWS, tMinimum, tMaximum)) {
+					return true;
+				}
+			}
+			
+			if(this.node == null) {
+				return false;
+			}
+			
+			final Point3D o = rayWS.getOrigin();
+			
+			final Vector3D d = rayWS.getDirection();
+			
+			final double oX = o.x;
+			final double oY = o.y;
+			final double oZ = o.z;
+			final double dRecX = 1.0D / d.x;
+			final double dRecY = 1.0D / d.y;
+			final double dRecZ = 1.0D / d.z;
+			
+			if(Doubles.isNaN(this.node.intersection(oX, oY, oZ, dRecX, dRecY, dRecZ, tMaximum))) {
+				return false;
+			}
+			
+			final Node[] nodes = this.stacks.get().nodes;
+			
+			nodes[0] = this.node;
+			
+			int size = 1;
+			
+			while(size > 0) {
+				final Node node = nodes[--size];
+				
+				if(node instanceof LeafNode) {
+					for(final Intersectable primitive : LeafNode.class.cast(node).primitives) {
+						if(primitive.intersects(rayWS, tMinimum, tMaximum)) {
+							return true;
+						}
+					}
+				} else {
+					final TreeNode treeNode = TreeNode.class.cast(node);
+					
+					if(!Doubles.isNaN(treeNode.nodeL.intersection(oX, oY, oZ, dRecX, dRecY, dRecZ, tMaximum))) {
+						nodes[size++] = treeNode.nodeL;
+					}
+					
+					if(!Doubles.isNaN(treeNode.nodeR.intersection(oX, oY, oZ, dRecX, dRecY, dRecZ, tMaximum))) {
+						nodes[size++] = treeNode.nodeR;
+					}
+				}
+			}
+			
+			return false;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public static BoundingVolumeHierarchy create(final List<? extends Intersectable> primitives, final ForkJoinPool forkJoinPool) {
+			final long currentTimeMillisA = System.currentTimeMillis();
+			
+			final List<Intersectable> primitivesBounded = new ArrayList<>();
+			final List<Intersectable> primitivesUnbounded = new ArrayList<>();
+			
+			final Node node = doBuild(primitives, primitivesBounded, primitivesUnbounded, forkJoinPool);
+			
+			final long currentTimeMillisB = System.currentTimeMillis();
+			
+			return new BoundingVolumeHierarchy(doCreateBoundingVolume(node, primitivesUnbounded), node, primitivesUnbounded.toArray(new Intersectable[0]), node != null ? node.computeDepth() : 0, node != null ? node.computeNodeCount() : 0, currentTimeMillisB - currentTimeMillisA);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static BoundingVolume3D doCreateBoundingVolume(final Node node, final List<Intersectable> primitivesUnbounded) {
+			if(!primitivesUnbounded.isEmpty()) {
+				return new InfiniteBoundingVolume3D();
+			}
+			
+			if(node == null) {
+				return new AxisAlignedBoundingBox3D();
+			}
+			
+			return new AxisAlignedBoundingBox3D(new Point3D(node.minimumX, node.minimumY, node.minimumZ), new Point3D(node.maximumX, node.maximumY, node.maximumZ));
+		}
+		
+		private static Node doBuild(final List<? extends Intersectable> primitives, final List<Intersectable> primitivesBounded, final List<Intersectable> primitivesUnbounded, final ForkJoinPool forkJoinPool) {
+			for(final Intersectable primitive : Lists.requireNonNull(primitives, "primitives")) {
+				if(doIsBounded(primitive.getBoundingVolume())) {
+					primitivesBounded.add(primitive);
+				} else {
+					primitivesUnbounded.add(primitive);
+				}
+			}
+			
+			return primitivesBounded.isEmpty() ? null : forkJoinPool != null ? forkJoinPool.invoke(new BuildTask(new Builder(primitivesBounded, true), 0, primitivesBounded.size())) : new Builder(primitivesBounded, false).build(0, primitivesBounded.size());
+		}
+		
+		private static boolean doIsBounded(final BoundingVolume3D boundingVolume) {
+			final Point3D maximum = boundingVolume.max();
+			final Point3D minimum = boundingVolume.min();
+			
+			return Doubles.isFinite(maximum.x) && Doubles.isFinite(maximum.y) && Doubles.isFinite(maximum.z) && Doubles.isFinite(minimum.x) && Doubles.isFinite(minimum.y) && Doubles.isFinite(minimum.z);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Bins {
+			private final double[] bounds;
+			private final int[] counts;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Bins() {
+				this.bounds = new double[3 * BIN_COUNT * 6];
+				this.counts = new int[3 * BIN_COUNT];
+				
+				reset();
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Bins reset() {
+				Arrays.fill(this.counts, 0);
+				
+				for(int bin = 0; bin < 3 * BIN_COUNT; bin++) {
+					Builder.doReset(this.bounds, bin * 6);
+				}
+				
+				return this;
+			}
+			
+			public Bins merge(final Bins bins) {
+				for(int bin = 0; bin < 3 * BIN_COUNT; bin++) {
+					this.counts[bin] += bins.counts[bin];
+					
+					Builder.doUnion(this.bounds, bin * 6, bins.bounds, bin * 6);
+				}
+				
+				return this;
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class BinsTask extends RecursiveTask<Bins> {
+			private static final long serialVersionUID = 1L;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private final Builder builder;
+			private final double[] centroidBounds;
+			private final int end;
+			private final int start;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public BinsTask(final Builder builder, final double[] centroidBounds, final int start, final int end) {
+				this.builder = builder;
+				this.centroidBounds = centroidBounds;
+				this.start = start;
+				this.end = end;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			@Override
+			protected Bins compute() {
+				if(this.end - this.start <= CHUNK_SIZE) {
+					return this.builder.doComputeBins(this.centroidBounds, this.start, this.end, new Bins());
+				}
+				
+				final int middle = (this.start + this.end) >>> 1;
+				
+				final BinsTask binsTaskL = new BinsTask(this.builder, this.centroidBounds, this.start, middle);
+				final BinsTask binsTaskR = new BinsTask(this.builder, this.centroidBounds, middle, this.end);
+				
+				binsTaskR.fork();
+				
+				return binsTaskL.compute().merge(binsTaskR.join());
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class BoundsTask extends RecursiveTask<double[]> {
+			private static final long serialVersionUID = 1L;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private final Builder builder;
+			private final int end;
+			private final int start;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public BoundsTask(final Builder builder, final int start, final int end) {
+				this.builder = builder;
+				this.start = start;
+				this.end = end;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			@Override
+			protected double[] compute() {
+				if(this.end - this.start <= CHUNK_SIZE) {
+					return this.builder.doComputeBounds(this.start, this.end);
+				}
+				
+				final int middle = (this.start + this.end) >>> 1;
+				
+				final BoundsTask boundsTaskL = new BoundsTask(this.builder, this.start, middle);
+				final BoundsTask boundsTaskR = new BoundsTask(this.builder, middle, this.end);
+				
+				boundsTaskR.fork();
+				
+				final double[] boundsL = boundsTaskL.compute();
+				final double[] boundsR = boundsTaskR.join();
+				
+				Builder.doUnion(boundsL, 0, boundsR, 0);
+				Builder.doUnion(boundsL, 6, boundsR, 6);
+				
+				return boundsL;
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class BuildTask extends RecursiveTask<Node> {
+			private static final long serialVersionUID = 1L;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private final Builder builder;
+			private final int end;
+			private final int start;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public BuildTask(final Builder builder, final int start, final int end) {
+				this.builder = builder;
+				this.start = start;
+				this.end = end;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			@Override
+			protected Node compute() {
+				return this.builder.build(this.start, this.end);
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Builder {
+			private final List<Intersectable> primitives;
+			private final ThreadLocal<Bins> bins;
+			private final boolean isParallel;
+			private final double[] bounds;
+			private final double[] centroids;
+			private final int[] indices;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Builder(final List<Intersectable> primitives, final boolean isParallel) {
+				this.primitives = primitives;
+				this.bins = ThreadLocal.withInitial(Bins::new);
+				this.isParallel = isParallel;
+				this.bounds = new double[primitives.size() * 6];
+				this.centroids = new double[primitives.size() * 3];
+				this.indices = new int[primitives.size()];
+				
+				final IntStream intStream = IntStream.range(0, primitives.size());
+				
+				(isParallel ? intStream.parallel() : intStream).forEach(i -> {
+					final BoundingVolume3D boundingVolume = primitives.get(i).getBoundingVolume();
+					
+					final Point3D maximum = boundingVolume.max();
+					final Point3D minimum = boundingVolume.min();
+					
+					this.bounds[i * 6 + 0] = minimum.x;
+					this.bounds[i * 6 + 1] = minimum.y;
+					this.bounds[i * 6 + 2] = minimum.z;
+					this.bounds[i * 6 + 3] = maximum.x;
+					this.bounds[i * 6 + 4] = maximum.y;
+					this.bounds[i * 6 + 5] = maximum.z;
+					
+					this.centroids[i * 3 + 0] = (minimum.x + maximum.x) * 0.5D;
+					this.centroids[i * 3 + 1] = (minimum.y + maximum.y) * 0.5D;
+					this.centroids[i * 3 + 2] = (minimum.z + maximum.z) * 0.5D;
+					
+					this.indices[i] = i;
+				});
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Node build(final int start, final int end) {
+				final double[] centroids = this.centroids;
+				
+				final int count = end - start;
+				
+				final boolean isParallel = this.isParallel && count >= PARALLEL_BINNING_THRESHOLD;
+				
+				final double[] nodeAndCentroidBounds = isParallel ? new BoundsTask(this, start, end).invoke() : doComputeBounds(start, end);
+				final double[] nodeBounds = Arrays.copyOfRange(nodeAndCentroidBounds, 0, 6);
+				final double[] centroidBounds = Arrays.copyOfRange(nodeAndCentroidBounds, 6, 12);
+				
+				if(count == 1) {
+					return doCreateLeafNode(nodeBounds, start, end);
+				}
+				
+				final Bins bins = isParallel ? new BinsTask(this, centroidBounds, start, end).invoke() : doComputeBins(centroidBounds, start, end, this.bins.get().reset());
+				
+				int bestAxis = -1;
+				int bestSplit = -1;
+				
+				double bestCost = Doubles.MAX_VALUE;
+				
+				final double[] costs = new double[BIN_COUNT - 1];
+				final double[] sweepBounds = new double[6];
+				
+				for(int axis = 0; axis < 3; axis++) {
+					if(centroidBounds[axis + 3] - centroidBounds[axis] <= 0.0D) {
+						continue;
+					}
+					
+					doReset(sweepBounds, 0);
+					
+					int countL = 0;
+					
+					for(int bin = 0; bin < BIN_COUNT - 1; bin++) {
+						countL += bins.counts[axis * BIN_COUNT + bin];
+						
+						doUnion(sweepBounds, 0, bins.bounds, (axis * BIN_COUNT + bin) * 6);
+						
+						costs[bin] = countL * doComputeSurfaceArea(sweepBounds);
+					}
+					
+					doReset(sweepBounds, 0);
+					
+					int countR = 0;
+					
+					for(int bin = BIN_COUNT - 1; bin > 0; bin--) {
+						countR += bins.counts[axis * BIN_COUNT + bin];
+						
+						doUnion(sweepBounds, 0, bins.bounds, (axis * BIN_COUNT + bin) * 6);
+						
+						costs[bin - 1] += countR * doComputeSurfaceArea(sweepBounds);
+					}
+					
+					for(int bin = 0; bin < BIN_COUNT - 1; bin++) {
+						if(costs[bin] < bestCost) {
+							bestCost = costs[bin];
+							bestAxis = axis;
+							bestSplit = bin;
+						}
+					}
+				}
+				
+				if(bestAxis == -1) {
+					return count <= PRIMITIVE_COUNT_MAXIMUM ? doCreateLeafNode(nodeBounds, start, end) : doCreateTreeNode(nodeBounds, start, start + count / 2, end, 0);
+				}
+				
+				final double surfaceArea = doComputeSurfaceArea(nodeBounds);
+				
+				final double costLeaf = count * COST_INTERSECTION;
+				final double costSplit = COST_TRAVERSAL + COST_INTERSECTION * bestCost / surfaceArea;
+				
+				if(costLeaf <= costSplit && count <= PRIMITIVE_COUNT_MAXIMUM) {
+					return doCreateLeafNode(nodeBounds, start, end);
+				}
+				
+				final double centroidMinimum = centroidBounds[bestAxis];
+				final double centroidMaximum = centroidBounds[bestAxis + 3];
+				
+				final double binScale = BIN_COUNT / (centroidMaximum - centroidMinimum);
+				
+				int middle = start;
+				
+				for(int i = start; i < end; i++) {
+					if(doComputeBin(centroids[i * 3 + bestAxis], centroidMinimum, binScale) <= bestSplit) {
+						doSwap(i, middle);
+						
+						middle++;
+					}
+				}
+				
+				if(middle == start || middle == end) {
+					middle = start + count / 2;
+				}
+				
+				return doCreateTreeNode(nodeBounds, start, middle, end, bestAxis);
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private Bins doComputeBins(final double[] centroidBounds, final int start, final int end, final Bins bins) {
+				final double[] bounds = this.bounds;
+				final double[] centroids = this.centroids;
+				
+				final double centroidMinimumX = centroidBounds[0];
+				final double centroidMinimumY = centroidBounds[1];
+				final double centroidMinimumZ = centroidBounds[2];
+				final double centroidExtentX = centroidBounds[3] - centroidMinimumX;
+				final double centroidExtentY = centroidBounds[4] - centroidMinimumY;
+				final double centroidExtentZ = centroidBounds[5] - centroidMinimumZ;
+				final double binScaleX = centroidExtentX > 0.0D ? BIN_COUNT / centroidExtentX : 0.0D;
+				final double binScaleY = centroidExtentY > 0.0D ? BIN_COUNT / centroidExtentY : 0.0D;
+				final double binScaleZ = centroidExtentZ > 0.0D ? BIN_COUNT / centroidExtentZ : 0.0D;
+				
+				for(int i = start; i < end; i++) {
+					final int binX = BIN_COUNT * 0 + doComputeBin(centroids[i * 3 + 0], centroidMinimumX, binScaleX);
+					final int binY = BIN_COUNT * 1 + doComputeBin(centroids[i * 3 + 1], centroidMinimumY, binScaleY);
+					final int binZ = BIN_COUNT * 2 + doComputeBin(centroids[i * 3 + 2], centroidMinimumZ, binScaleZ);
+					
+					bins.counts[binX]++;
+					bins.counts[binY]++;
+					bins.counts[binZ]++;
+					
+					doUnion(bins.bounds, binX * 6, bounds, i * 6);
+					doUnion(bins.bounds, binY * 6, bounds, i * 6);
+					doUnion(bins.bounds, binZ * 6, bounds, i * 6);
+				}
+				
+				return bins;
+			}
+			
+			private Node doCreateLeafNode(final double[] nodeBounds, final int start, final int end) {
+				final Intersectable[] primitives = new Intersectable[end - start];
+				
+				for(int i = start; i < end; i++) {
+					primitives[i - start] = this.primitives.get(this.indices[i]);
+				}
+				
+				return new LeafNode(nodeBounds, primitives);
+			}
+			
+			private Node doCreateTreeNode(final double[] nodeBounds, final int start, final int middle, final int end, final int axis) {
+				if(this.isParallel && end - start >= PARALLEL_BUILD_THRESHOLD) {
+					final BuildTask buildTaskL = new BuildTask(this, start, middle);
+					final BuildTask buildTaskR = new BuildTask(this, middle, end);
+					
+					ForkJoinTask.invokeAll(buildTaskL, buildTaskR);
+					
+					return new TreeNode(nodeBounds, buildTaskL.join(), buildTaskR.join(), axis);
+				}
+				
+				final Node nodeL = build(start, middle);
+				final Node nodeR = build(middle, end);
+				
+				return new TreeNode(nodeBounds, nodeL, nodeR, axis);
+			}
+			
+			private double[] doComputeBounds(final int start, final int end) {
+				final double[] bounds = new double[12];
+				
+				doReset(bounds, 0);
+				doReset(bounds, 6);
+				
+				for(int i = start; i < end; i++) {
+					doUnion(bounds, 0, this.bounds, i * 6);
+					doUnionPoint(bounds, 6, this.centroids, i * 3);
+				}
+				
+				return bounds;
+			}
+			
+			private void doSwap(final int i, final int j) {
+				final double[] bounds = this.bounds;
+				final double[] centroids = this.centroids;
+				
+				final int[] indices = this.indices;
+				
+				final int index = indices[i];
+				
+				indices[i] = indices[j];
+				indices[j] = index;
+				
+				for(int k = 0; k < 6; k++) {
+					final double bound = bounds[i * 6 + k];
+					
+					bounds[i * 6 + k] = bounds[j * 6 + k];
+					bounds[j * 6 + k] = bound;
+				}
+				
+				for(int k = 0; k < 3; k++) {
+					final double centroid = centroids[i * 3 + k];
+					
+					centroids[i * 3 + k] = centroids[j * 3 + k];
+					centroids[j * 3 + k] = centroid;
+				}
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private static double doComputeSurfaceArea(final double[] bounds) {
+				final double x = bounds[3] - bounds[0];
+				final double y = bounds[4] - bounds[1];
+				final double z = bounds[5] - bounds[2];
+				
+				return x < 0.0D || y < 0.0D || z < 0.0D ? 0.0D : 2.0D * (x * y + y * z + z * x);
+			}
+			
+			private static int doComputeBin(final double centroid, final double centroidMinimum, final double binScale) {
+				return Ints.min((int)((centroid - centroidMinimum) * binScale), BIN_COUNT - 1);
+			}
+			
+			private static void doReset(final double[] bounds, final int offset) {
+				bounds[offset + 0] = Doubles.MAX_VALUE;
+				bounds[offset + 1] = Doubles.MAX_VALUE;
+				bounds[offset + 2] = Doubles.MAX_VALUE;
+				bounds[offset + 3] = Doubles.MIN_VALUE;
+				bounds[offset + 4] = Doubles.MIN_VALUE;
+				bounds[offset + 5] = Doubles.MIN_VALUE;
+			}
+			
+			private static void doUnion(final double[] bounds, final int offset, final double[] boundsToAdd, final int offsetToAdd) {
+				bounds[offset + 0] = Doubles.min(bounds[offset + 0], boundsToAdd[offsetToAdd + 0]);
+				bounds[offset + 1] = Doubles.min(bounds[offset + 1], boundsToAdd[offsetToAdd + 1]);
+				bounds[offset + 2] = Doubles.min(bounds[offset + 2], boundsToAdd[offsetToAdd + 2]);
+				bounds[offset + 3] = Doubles.max(bounds[offset + 3], boundsToAdd[offsetToAdd + 3]);
+				bounds[offset + 4] = Doubles.max(bounds[offset + 4], boundsToAdd[offsetToAdd + 4]);
+				bounds[offset + 5] = Doubles.max(bounds[offset + 5], boundsToAdd[offsetToAdd + 5]);
+			}
+			
+			private static void doUnionPoint(final double[] bounds, final int offset, final double[] points, final int offsetPoint) {
+				bounds[offset + 0] = Doubles.min(bounds[offset + 0], points[offsetPoint + 0]);
+				bounds[offset + 1] = Doubles.min(bounds[offset + 1], points[offsetPoint + 1]);
+				bounds[offset + 2] = Doubles.min(bounds[offset + 2], points[offsetPoint + 2]);
+				bounds[offset + 3] = Doubles.max(bounds[offset + 3], points[offsetPoint + 0]);
+				bounds[offset + 4] = Doubles.max(bounds[offset + 4], points[offsetPoint + 1]);
+				bounds[offset + 5] = Doubles.max(bounds[offset + 5], points[offsetPoint + 2]);
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class LeafNode extends Node {
+			private final Intersectable[] primitives;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public LeafNode(final double[] bounds, final Intersectable[] primitives) {
+				super(bounds);
+				
+				this.primitives = primitives;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			@Override
+			public int computeDepth() {
+				return 0;
+			}
+			
+			@Override
+			public int computeNodeCount() {
+				return 1;
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static abstract class Node {
+			private final double maximumX;
+			private final double maximumY;
+			private final double maximumZ;
+			private final double minimumX;
+			private final double minimumY;
+			private final double minimumZ;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			protected Node(final double[] bounds) {
+				this.minimumX = bounds[0];
+				this.minimumY = bounds[1];
+				this.minimumZ = bounds[2];
+				this.maximumX = bounds[3];
+				this.maximumY = bounds[4];
+				this.maximumZ = bounds[5];
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public abstract int computeDepth();
+			
+			public abstract int computeNodeCount();
+			
+			public final double intersection(final double oX, final double oY, final double oZ, final double dRecX, final double dRecY, final double dRecZ, final double tMaximum) {
+				final double tX0 = (this.minimumX - oX) * dRecX;
+				final double tX1 = (this.maximumX - oX) * dRecX;
+				final double tY0 = (this.minimumY - oY) * dRecY;
+				final double tY1 = (this.maximumY - oY) * dRecY;
+				final double tZ0 = (this.minimumZ - oZ) * dRecZ;
+				final double tZ1 = (this.maximumZ - oZ) * dRecZ;
+				
+				final double tXNear = tX0 < tX1 ? tX0 : tX1;
+				final double tXFar = tX0 < tX1 ? tX1 : tX0;
+				final double tYNear = tY0 < tY1 ? tY0 : tY1;
+				final double tYFar = tY0 < tY1 ? tY1 : tY0;
+				final double tZNear = tZ0 < tZ1 ? tZ0 : tZ1;
+				final double tZFar = tZ0 < tZ1 ? tZ1 : tZ0;
+				
+				double tNear = Doubles.MIN_VALUE;
+				double tFar = Doubles.MAX_VALUE;
+				
+				tNear = tXNear > tNear ? tXNear : tNear;
+				tNear = tYNear > tNear ? tYNear : tNear;
+				tNear = tZNear > tNear ? tZNear : tNear;
+				
+				tFar = tXFar < tFar ? tXFar : tFar;
+				tFar = tYFar < tFar ? tYFar : tFar;
+				tFar = tZFar < tFar ? tZFar : tFar;
+				
+				if(tNear > tFar || tFar < 0.0D || tNear > tMaximum) {
+					return Doubles.NaN;
+				}
+				
+				return tNear;
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Stack {
+			private final Node[] nodes;
+			private final Shape.Hit hit;
+			private final double[] ts;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Stack(final int capacity) {
+				this.nodes = new Node[capacity];
+				this.hit = new Shape.Hit();
+				this.ts = new double[capacity];
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class TreeNode extends Node {
+			private final Node nodeL;
+			private final Node nodeR;
+			private final int axis;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public TreeNode(final double[] bounds, final Node nodeL, final Node nodeR, final int axis) {
+				super(bounds);
+				
+				this.nodeL = nodeL;
+				this.nodeR = nodeR;
+				this.axis = axis;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			@Override
+			public int computeDepth() {
+				return 1 + Ints.max(this.nodeL.computeDepth(), this.nodeR.computeDepth());
+			}
+			
+			@Override
+			public int computeNodeCount() {
+				return 1 + this.nodeL.computeNodeCount() + this.nodeR.computeNodeCount();
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class FlattenedBoundingVolumeHierarchy extends AccelerationStructure {
+		private final BoundingVolume3D boundingVolume;
+		private final Intersectable[] primitives;
+		private final Intersectable[] primitivesUnbounded;
+		private final ThreadLocal<Stack> stacks;
+		private final double[] bounds;
+		private final int[] nodes;
+		private final long buildTimeMillis;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private FlattenedBoundingVolumeHierarchy(final BoundingVolume3D boundingVolume, final Intersectable[] primitives, final Intersectable[] primitivesUnbounded, final double[] bounds, final int[] nodes, final int depth, final long buildTimeMillis) {
+			this.boundingVolume = boundingVolume;
+			this.primitives = primitives;
+			this.primitivesUnbounded = primitivesUnbounded;
+			this.stacks = ThreadLocal.withInitial(() -> new Stack(depth + 1));
+			this.bounds = bounds;
+			this.nodes = nodes;
+			this.buildTimeMillis = buildTimeMillis;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public BoundingVolume3D getBoundingVolume() {
+			return this.boundingVolume;
+		}
+		
+		@Override
+		public int getNodeCount() {
+			return this.nodes.length / 2;
+		}
+		
+		@Override
+		public long getBuildTimeMillis() {
+			return this.buildTimeMillis;
+		}
+		
+		@Override
+		public Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			final Stack stack = this.stacks.get();
+			
+			final double t = doIntersectionT(rayWS, tMinimum, tMaximum, stack);
+			
+			return stack.intersectable != null ? stack.intersectable.createIntersection(rayWS, t, tMinimum, tMaximum, stack.hit) : Optional.empty();
+		}
+		
+		@Override
+		public boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			for(final Intersectable primitive : this.primitivesUnbounded) {
+				if(primitive.intersects(rayWS, tMinimum, tMaximum)) {
+					return true;
+				}
+			}
+			
+			if(this.nodes.length == 0) {
+				return false;
+			}
+			
+			final Point3D o = rayWS.getOrigin();
+			
+			final Vector3D d = rayWS.getDirection();
+			
+			final double oX = o.x;
+			final double oY = o.y;
+			final double oZ = o.z;
+			final double dRecX = 1.0D / d.x;
+			final double dRecY = 1.0D / d.y;
+			final double dRecZ = 1.0D / d.z;
+			
+			final Intersectable[] primitives = this.primitives;
+			
+			final double[] bounds = this.bounds;
+			
+			final int[] nodes = this.nodes;
+			final int[] indices = this.stacks.get().indices;
+			
+			int index = 0;
+			int size = 0;
+			
+			while(true) {
+				if(doIntersects(bounds, index * 6, oX, oY, oZ, dRecX, dRecY, dRecZ, tMaximum)) {
+					final int offset = nodes[index * 2 + 0];
+					final int count = nodes[index * 2 + 1];
+					
+					if(count > 0) {
+						for(int i = offset; i < offset + count; i++) {
+							if(primitives[i].intersects(rayWS, tMinimum, tMaximum)) {
+								return true;
+							}
+						}
+					} else {
+						indices[size++] = offset;
+						
+						index = index + 1;
+						
+						continue;
+					}
+				}
+				
+				if(size == 0) {
+					return false;
+				}
+				
+				index = indices[--size];
+			}
+		}
+		
+		@Override
+		public double intersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			return doIntersectionT(rayWS, tMinimum, tMaximum, this.stacks.get());
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private double doIntersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum, final Stack stack) {
+			Intersectable intersectable = null;
+			
+			double t = tMaximum;
+			
+			for(final Intersectable primitive : this.primitivesUnbounded) {
+				final double tPrimitive = primitive.intersectionT(rayWS, tMinimum, t, stack.hit);
+				
+				if(!Doubles.isNaN(tPrimitive)) {
+					intersectable = primitive;
+					
+					t = tPrimitive;
+				}
+			}
+			
+			if(this.nodes.length == 0) {
+				stack.intersectable = intersectable;
+				
+				return intersectable != null ? t : Doubles.NaN;
+			}
+			
+			final Point3D o = rayWS.getOrigin();
+			
+			final Vector3D d = rayWS.getDirection();
+			
+			final double oX = o.x;
+			final double oY = o.y;
+			final double oZ = o.z;
+			final double dRecX = 1.0D / d.x;
+			final double dRecY = 1.0D / d.y;
+			final double dRecZ = 1.0D / d.z;
+			
+			final boolean isNegativeX = dRecX < 0.0D;
+			final boolean isNegativeY = dRecY < 0.0D;
+			final boolean isNegativeZ = dRecZ < 0.0D;
+			
+			final Intersectable[] primitives = this.primitives;
+			
+			final double[] bounds = this.bounds;
+			
+			final int[] nodes = this.nodes;
+			final int[] indices = stack.indices;
+			
+			int index = 0;
+			int size = 0;
+			
+			while(true) {
+				if(doIntersects(bounds, index * 6, oX, oY, oZ, dRecX, dRecY, dRecZ, t)) {
+					final int offset = nodes[index * 2 + 0];
+					final int count = nodes[index * 2 + 1];
+					
+					if(count > 0) {
+						for(int i = offset; i < offset + count; i++) {
+							final double tPrimitive = primitives[i].intersectionT(rayWS, tMinimum, t, stack.hit);
+							
+							if(!Doubles.isNaN(tPrimitive)) {
+								intersectable = primitives[i];
+								
+								t = tPrimitive;
+							}
+						}
+						
+						if(size == 0) {
+							break;
+						}
+						
+						index = indices[--size];
+					} else {
+						final int axis = -count - 1;
+						
+						final boolean isNegative = axis == 0 ? isNegativeX : axis == 1 ? isNegativeY : isNegativeZ;
+						
+						if(isNegative) {
+							indices[size++] = index + 1;
+							
+							index = offset;
+						} else {
+							indices[size++] = offset;
+							
+							index = index + 1;
+						}
+					}
+				} else {
+					if(size == 0) {
+						break;
+					}
+					
+					index = indices[--size];
+				}
+			}
+			
+			stack.intersectable = intersectable;
+			
+			return intersectable != null ? t : Doubles.NaN;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public static FlattenedBoundingVolumeHierarchy create(final List<? extends Intersectable> primitives, final ForkJoinPool forkJoinPool) {
+			final long currentTimeMillisA = System.currentTimeMillis();
+			
+			final List<Intersectable> primitivesBounded = new ArrayList<>();
+			final List<Intersectable> primitivesUnbounded = new ArrayList<>();
+			
+			final BoundingVolumeHierarchy.Node node = BoundingVolumeHierarchy.doBuild(primitives, primitivesBounded, primitivesUnbounded, forkJoinPool);
+			
+			final int nodeCount = node != null ? node.computeNodeCount() : 0;
+			
+			final Flattener flattener = new Flattener(primitivesBounded.size(), nodeCount);
+			
+			if(node != null) {
+				flattener.flatten(node);
+			}
+			
+			final long currentTimeMillisB = System.currentTimeMillis();
+			
+			return new FlattenedBoundingVolumeHierarchy(BoundingVolumeHierarchy.doCreateBoundingVolume(node, primitivesUnbounded), flattener.primitives, primitivesUnbounded.toArray(new Intersectable[0]), flattener.bounds, flattener.nodes, node != null ? node.computeDepth() : 0, currentTimeMillisB - currentTimeMillisA);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static boolean doIntersects(final double[] bounds, final int offset, final double oX, final double oY, final double oZ, final double dRecX, final double dRecY, final double dRecZ, final double tMaximum) {
+			final double tX0 = (bounds[offset + 0] - oX) * dRecX;
+			final double tX1 = (bounds[offset + 3] - oX) * dRecX;
+			final double tY0 = (bounds[offset + 1] - oY) * dRecY;
+			final double tY1 = (bounds[offset + 4] - oY) * dRecY;
+			final double tZ0 = (bounds[offset + 2] - oZ) * dRecZ;
+			final double tZ1 = (bounds[offset + 5] - oZ) * dRecZ;
+			
+			final double tXNear = tX0 < tX1 ? tX0 : tX1;
+			final double tXFar = tX0 < tX1 ? tX1 : tX0;
+			final double tYNear = tY0 < tY1 ? tY0 : tY1;
+			final double tYFar = tY0 < tY1 ? tY1 : tY0;
+			final double tZNear = tZ0 < tZ1 ? tZ0 : tZ1;
+			final double tZFar = tZ0 < tZ1 ? tZ1 : tZ0;
+			
+			double tNear = Doubles.MIN_VALUE;
+			double tFar = Doubles.MAX_VALUE;
+			
+			tNear = tXNear > tNear ? tXNear : tNear;
+			tNear = tYNear > tNear ? tYNear : tNear;
+			tNear = tZNear > tNear ? tZNear : tNear;
+			
+			tFar = tXFar < tFar ? tXFar : tFar;
+			tFar = tYFar < tFar ? tYFar : tFar;
+			tFar = tZFar < tFar ? tZFar : tFar;
+			
+			return tNear <= tFar && tFar >= 0.0D && tNear <= tMaximum;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Flattener {
+			private final Intersectable[] primitives;
+			private final double[] bounds;
+			private final int[] nodes;
+			private int nodeCount;
+			private int primitiveCount;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Flattener(final int primitiveCount, final int nodeCount) {
+				this.primitives = new Intersectable[primitiveCount];
+				this.bounds = new double[nodeCount * 6];
+				this.nodes = new int[nodeCount * 2];
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public void flatten(final BoundingVolumeHierarchy.Node node) {
+				final int index = this.nodeCount++;
+				
+				this.bounds[index * 6 + 0] = node.minimumX;
+				this.bounds[index * 6 + 1] = node.minimumY;
+				this.bounds[index * 6 + 2] = node.minimumZ;
+				this.bounds[index * 6 + 3] = node.maximumX;
+				this.bounds[index * 6 + 4] = node.maximumY;
+				this.bounds[index * 6 + 5] = node.maximumZ;
+				
+				if(node instanceof BoundingVolumeHierarchy.LeafNode) {
+					final Intersectable[] primitives = BoundingVolumeHierarchy.LeafNode.class.cast(node).primitives;
+					
+					this.nodes[index * 2 + 0] = this.primitiveCount;
+					this.nodes[index * 2 + 1] = primitives.length;
+					
+					for(final Intersectable primitive : primitives) {
+						this.primitives[this.primitiveCount++] = primitive;
+					}
+				} else {
+					final BoundingVolumeHierarchy.TreeNode treeNode = BoundingVolumeHierarchy.TreeNode.class.cast(node);
+					
+					flatten(treeNode.nodeL);
+					
+					this.nodes[index * 2 + 0] = this.nodeCount;
+					this.nodes[index * 2 + 1] = -treeNode.axis - 1;
+					
+					flatten(treeNode.nodeR);
+				}
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Stack {
+			private final Shape.Hit hit;
+			private final int[] indices;
+			private Intersectable intersectable;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Stack(final int capacity) {
+				this.hit = new Shape.Hit();
+				this.indices = new int[capacity];
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Linear extends AccelerationStructure {
+		private final BoundingVolume3D boundingVolume;
+		private final Intersectable[] primitives;
+		private final long buildTimeMillis;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Linear(final List<? extends Intersectable> primitives) {
+			final long currentTimeMillisA = System.currentTimeMillis();
+			
+			this.primitives = Lists.requireNonNull(primitives, "primitives").toArray(new Intersectable[0]);
+			this.boundingVolume = doCreateBoundingVolume(this.primitives);
+			
+			final long currentTimeMillisB = System.currentTimeMillis();
+			
+			this.buildTimeMillis = currentTimeMillisB - currentTimeMillisA;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public BoundingVolume3D getBoundingVolume() {
+			return this.boundingVolume;
+		}
+		
+		@Override
+		public int getNodeCount() {
+			return 0;
+		}
+		
+		@Override
+		public long getBuildTimeMillis() {
+			return this.buildTimeMillis;
+		}
+		
+		@Override
+		public Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			final Shape.Hit hit = new Shape.Hit();
+			
+			Intersectable intersectable = null;
+			
+			double t = tMaximum;
+			
+			for(final Intersectable primitive : this.primitives) {
+				final double tPrimitive = primitive.intersectionT(rayWS, tMinimum, t, hit);
+				
+				if(!Doubles.isNaN(tPrimitive)) {
+					intersectable = primitive;
+					
+					t = tPrimitive;
+				}
+			}
+			
+			return intersectable != null ? intersectable.createIntersection(rayWS, t, tMinimum, tMaximum, hit) : Optional.empty();
+		}
+		
+		@Override
+		public boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			for(final Intersectable primitive : this.primitives) {
+				if(primitive.intersects(rayWS, tMinimum, tMaximum)) {
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static BoundingVolume3D doCreateBoundingVolume(final Intersectable[] primitives) {
+			BoundingVolume3D boundingVolume = new AxisAlignedBoundingBox3D();
+			
+			for(int i = 0; i < primitives.length; i++) {
+				final BoundingVolume3D boundingVolumePrimitive = primitives[i].getBoundingVolume();
+				
+				if(boundingVolumePrimitive instanceof InfiniteBoundingVolume3D) {
+					return boundingVolumePrimitive;
+				}
+				
+				boundingVolume = i == 0 ? boundingVolumePrimitive : AxisAlignedBoundingBox3D.union(boundingVolume, boundingVolumePrimitive);
+			}
+			
+			return boundingVolume;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	static interface SlabKernel {
+		boolean isSupported(final int width);
+		
+		void intersection(final double[] bounds, final int offset, final int width, final double oX, final double oY, final double oZ, final double dRecX, final double dRecY, final double dRecZ, final double tMaximum, final double[] ts);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class WideBoundingVolumeHierarchy extends AccelerationStructure {
+		private static final SlabKernel SLAB_KERNEL = doCreateSlabKernel();
+		private static final int EMPTY = Integer.MIN_VALUE;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final BoundingVolume3D boundingVolume;
+		private final Intersectable[] primitives;
+		private final Intersectable[] primitivesUnbounded;
+		private final SlabKernel slabKernel;
+		private final ThreadLocal<Stack> stacks;
+		private final double[] bounds;
+		private final int[] children;
+		private final int[] leaves;
+		private final int width;
+		private final long buildTimeMillis;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private WideBoundingVolumeHierarchy(final BoundingVolume3D boundingVolume, final Intersectable[] primitives, final Intersectable[] primitivesUnbounded, final double[] bounds, final int[] children, final int[] leaves, final int width, final int depth, final long buildTimeMillis) {
+			this.boundingVolume = boundingVolume;
+			this.primitives = primitives;
+			this.primitivesUnbounded = primitivesUnbounded;
+			this.slabKernel = SLAB_KERNEL != null && SLAB_KERNEL.isSupported(width) ? SLAB_KERNEL : null;
+			this.stacks = ThreadLocal.withInitial(() -> new Stack((depth + 1) * width, width));
+			this.bounds = bounds;
+			this.children = children;
+			this.leaves = leaves;
+			this.width = width;
+			this.buildTimeMillis = buildTimeMillis;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public BoundingVolume3D getBoundingVolume() {
+			return this.boundingVolume;
+		}
+		
+		@Override
+		public int getNodeCount() {
+			return this.children.length / this.width;
+		}
+		
+		@Override
+		public long getBuildTimeMillis() {
+			return this.buildTimeMillis;
+		}
+		
+		@Override
+		public Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			final Stack stack = this.stacks.get();
+			
+			final double t = doIntersectionT(rayWS, tMinimum, tMaximum, stack);
+			
+			return stack.intersectable != null ? stack.intersectable.createIntersection(rayWS, t, tMinimum, tMaximum, stack.hit) : Optional.empty();
+		}
+		
+		@Override
+		public boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			for(final Intersectable primitive : this.primitivesUnbounded) {
+				if(primitive.intersects(rayWS, tMinimum, tMaximum)) {
+					return true;
+				}
+			}
+			
+			if(this.children.length == 0) {
+				return false;
+			}
+			
+			final Point3D o = rayWS.getOrigin();
+			
+			final Vector3D d = rayWS.getDirection();
+			
+			final double oX = o.x;
+			final double oY = o.y;
+			final double oZ = o.z;
+			final double dRecX = 1.0D / d.x;
+			final double dRecY = 1.0D / d.y;
+			final double dRecZ = 1.0D / d.z;
+			
+			final Intersectable[] primitives = this.primitives;
+			
+			final SlabKernel slabKernel = this.slabKernel;
+			
+			final Stack stack = this.stacks.get();
+			
+			final int[] children = this.children;
+			final int[] indices = stack.indices;
+			final int[] leaves = this.leaves;
+			
+			final double[] bounds = this.bounds;
+			final double[] lanes = stack.lanes;
+			
+			final int width = this.width;
+			
+			indices[0] = 0;
+			
+			int size = 1;
+			
+			while(size > 0) {
+				final int index = indices[--size];
+				
+				if(index < 0) {
+					final int offset = leaves[(-index - 1) * 2 + 0];
+					final int count = leaves[(-index - 1) * 2 + 1];
+					
+					for(int i = offset; i < offset + count; i++) {
+						if(primitives[i].intersects(rayWS, tMinimum, tMaximum)) {
+							return true;
+						}
+					}
+					
+					continue;
+				}
+				
+				if(slabKernel != null) {
+					slabKernel.intersection(bounds, index * width * 6, width, oX, oY, oZ, dRecX, dRecY, dRecZ, tMaximum, lanes);
+				}
+				
+				for(int lane = 0; lane < width; lane++) {
+					final int child = children[index * width + lane];
+					
+					if(child == EMPTY) {
+						break;
+					}
+					
+					if(!Doubles.isNaN(slabKernel != null ? lanes[lane] : doIntersection(bounds, index * width * 6, lane, width, oX, oY, oZ, dRecX, dRecY, dRecZ, tMaximum))) {
+						indices[size++] = child;
+					}
+				}
+			}
+			
+			return false;
+		}
+		
+		@Override
+		public double intersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+			return doIntersectionT(rayWS, tMinimum, tMaximum, this.stacks.get());
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private double doIntersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum, final Stack stack) {
+			Intersectable intersectable = null;
+			
+			double t = tMaximum;
+			
+			for(final Intersectable primitive : this.primitivesUnbounded) {
+				final double tPrimitive = primitive.intersectionT(rayWS, tMinimum, t, stack.hit);
+				
+				if(!Doubles.isNaN(tPrimitive)) {
+					intersectable = primitive;
+					
+					t = tPrimitive;
+				}
+			}
+			
+			if(this.children.length == 0) {
+				stack.intersectable = intersectable;
+				
+				return intersectable != null ? t : Doubles.NaN;
+			}
+			
+			final Point3D o = rayWS.getOrigin();
+			
+			final Vector3D d = rayWS.getDirection();
+			
+			final double oX = o.x;
+			final double oY = o.y;
+			final double oZ = o.z;
+			final double dRecX = 1.0D / d.x;
+			final double dRecY = 1.0D / d.y;
+			final double dRecZ = 1.0D / d.z;
+			
+			final Intersectable[] primitives = this.primitives;
+			
+			final SlabKernel slabKernel = this.slabKernel;
+			
+			final double[] bounds = this.bounds;
+			final double[] lanes = stack.lanes;
+			final double[] ts = stack.ts;
+			
+			final int[] children = this.children;
+			final int[] indices = stack.indices;
+			final int[] leaves = this.leaves;
+			
+			final int width = this.width;
+			
+			indices[0] = 0;
+			
+			ts[0] = Doubles.MIN_VALUE;
+			
+			int size = 1;
+			
+			while(size > 0) {
+				size--;
+				
+				if(ts[size] > t) {
+					continue;
+				}
+				
+				final int index = indices[size];
+				
+				if(index < 0) {
+					final int offset = leaves[(-index - 1) * 2 + 0];
+					final int count = leaves[(-index - 1) * 2 + 1];
+					
+					for(int i = offset; i < offset + count; i++) {
+						final double tPrimitive = primitives[i].intersectionT(rayWS, tMinimum, t, stack.hit);
+						
+						if(!Doubles.isNaN(tPrimitive)) {
+							intersectable = primitives[i];
+							
+							t = tPrimitive;
+						}
+					}
+					
+					continue;
+				}
+				
+				final int start = size;
+				
+				if(slabKernel != null) {
+					slabKernel.intersection(bounds, index * width * 6, width, oX, oY, oZ, dRecX, dRecY, dRecZ, t, lanes);
+				}
+				
+				for(int lane = 0; lane < width; lane++) {
+					final int child = children[index * width + lane];
+					
+					if(child == EMPTY) {
+						break;
+					}
+					
+					final double tLane = slabKernel != null ? lanes[lane] : doIntersection(bounds, index * width * 6, lane, width, oX, oY, oZ, dRecX, dRecY, dRecZ, t);
+					
+					if(Doubles.isNaN(tLane)) {
+						continue;
+					}
+					
+					int i = size++;
+					
+					while(i > start && ts[i - 1] < tLane) {
+						indices[i] = indices[i - 1];
+						
+						ts[i] = ts[i - 1];
+						
+						i--;
+					}
+					
+					indices[i] = child;
+					
+					ts[i] = tLane;
+				}
+			}
+			
+			stack.intersectable = intersectable;
+			
+			return intersectable != null ? t : Doubles.NaN;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public static WideBoundingVolumeHierarchy create(final List<? extends Intersectable> primitives, final int width, final ForkJoinPool forkJoinPool) {
+			final long currentTimeMillisA = System.currentTimeMillis();
+			
+			final List<Intersectable> primitivesBounded = new ArrayList<>();
+			final List<Intersectable> primitivesUnbounded = new ArrayList<>();
+			
+			final BoundingVolumeHierarchy.Node node = BoundingVolumeHierarchy.doBuild(primitives, primitivesBounded, primitivesUnbounded, forkJoinPool);
+			
+			final Collapser collapser = new Collapser(primitivesBounded.size(), node != null ? node.computeNodeCount() : 0, width);
+			
+			final int depth = node != null ? collapser.collapse(node) : 0;
+			
+			final long currentTimeMillisB = System.currentTimeMillis();
+			
+			return new WideBoundingVolumeHierarchy(BoundingVolumeHierarchy.doCreateBoundingVolume(node, primitivesUnbounded), collapser.primitives, primitivesUnbounded.toArray(new Intersectable[0]), Arrays.copyOf(collapser.bounds, collapser.nodeCount * width * 6), Arrays.copyOf(collapser.children, collapser.nodeCount * width), Arrays.copyOf(collapser.leaves, collapser.leafCount * 2), width, depth, currentTimeMillisB - currentTimeMillisA);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static SlabKernel doCreateSlabKernel() {
+			try {
+				return SlabKernel.class.cast(Class.forName("org.dayflower.pt.VectorSlabKernel").getDeclaredConstructor().newInstance());
+			} catch(final LinkageError | ReflectiveOperationException e) {
+				return null;
+			}
+		}
+		
+		private static double doIntersection(final double[] bounds, final int offset, final int lane, final int width, final double oX, final double oY, final double oZ, final double dRecX, final double dRecY, final double dRecZ, final double tMaximum) {
+			final double tX0 = (bounds[offset + width * 0 + lane] - oX) * dRecX;
+			final double tY0 = (bounds[offset + width * 1 + lane] - oY) * dRecY;
+			final double tZ0 = (bounds[offset + width * 2 + lane] - oZ) * dRecZ;
+			final double tX1 = (bounds[offset + width * 3 + lane] - oX) * dRecX;
+			final double tY1 = (bounds[offset + width * 4 + lane] - oY) * dRecY;
+			final double tZ1 = (bounds[offset + width * 5 + lane] - oZ) * dRecZ;
+			
+			final double tXNear = tX0 < tX1 ? tX0 : tX1;
+			final double tXFar = tX0 < tX1 ? tX1 : tX0;
+			final double tYNear = tY0 < tY1 ? tY0 : tY1;
+			final double tYFar = tY0 < tY1 ? tY1 : tY0;
+			final double tZNear = tZ0 < tZ1 ? tZ0 : tZ1;
+			final double tZFar = tZ0 < tZ1 ? tZ1 : tZ0;
+			
+			double tNear = Doubles.MIN_VALUE;
+			double tFar = Doubles.MAX_VALUE;
+			
+			tNear = tXNear > tNear ? tXNear : tNear;
+			tNear = tYNear > tNear ? tYNear : tNear;
+			tNear = tZNear > tNear ? tZNear : tNear;
+			
+			tFar = tXFar < tFar ? tXFar : tFar;
+			tFar = tYFar < tFar ? tYFar : tFar;
+			tFar = tZFar < tFar ? tZFar : tFar;
+			
+			if(tNear > tFar || tFar < 0.0D || tNear > tMaximum) {
+				return Doubles.NaN;
+			}
+			
+			return tNear;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Collapser {
+			private final Intersectable[] primitives;
+			private final double[] bounds;
+			private final int[] children;
+			private final int[] leaves;
+			private final int width;
+			private int leafCount;
+			private int nodeCount;
+			private int primitiveCount;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Collapser(final int primitiveCount, final int nodeCount, final int width) {
+				this.primitives = new Intersectable[primitiveCount];
+				this.bounds = new double[nodeCount * width * 6];
+				this.children = new int[nodeCount * width];
+				this.leaves = new int[nodeCount * 2];
+				this.width = width;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public int collapse(final BoundingVolumeHierarchy.Node node) {
+				final List<BoundingVolumeHierarchy.Node> nodes = new ArrayList<>();
+				
+				if(node instanceof BoundingVolumeHierarchy.TreeNode) {
+					nodes.add(BoundingVolumeHierarchy.TreeNode.class.cast(node).nodeL);
+					nodes.add(BoundingVolumeHierarchy.TreeNode.class.cast(node).nodeR);
+				} else {
+					nodes.add(node);
+				}
+				
+				while(nodes.size() < this.width) {
+					int largestIndex = -1;
+					
+					double largestSurfaceArea = -1.0D;
+					
+					for(int i = 0; i < nodes.size(); i++) {
+						if(nodes.get(i) instanceof BoundingVolumeHierarchy.TreeNode) {
+							final double surfaceArea = doComputeSurfaceArea(nodes.get(i));
+							
+							if(surfaceArea > largestSurfaceArea) {
+								largestIndex = i;
+								largestSurfaceArea = surfaceArea;
+							}
+						}
+					}
+					
+					if(largestIndex == -1) {
+						break;
+					}
+					
+					final BoundingVolumeHierarchy.TreeNode treeNode = BoundingVolumeHierarchy.TreeNode.class.cast(nodes.remove(largestIndex));
+					
+					nodes.add(treeNode.nodeL);
+					nodes.add(treeNode.nodeR);
+				}
+				
+				final int index = this.nodeCount++;
+				final int offset = index * this.width * 6;
+				final int width = this.width;
+				
+				int depth = 0;
+				
+				for(int lane = 0; lane < width; lane++) {
+					if(lane >= nodes.size()) {
+						this.children[index * width + lane] = EMPTY;
+						
+						continue;
+					}
+					
+					final BoundingVolumeHierarchy.Node child = nodes.get(lane);
+					
+					this.bounds[offset + width * 0 + lane] = child.minimumX;
+					this.bounds[offset + width * 1 + lane] = child.minimumY;
+					this.bounds[offset + width * 2 + lane] = child.minimumZ;
+					this.bounds[offset + width * 3 + lane] = child.maximumX;
+					this.bounds[offset + width * 4 + lane] = child.maximumY;
+					this.bounds[offset + width * 5 + lane] = child.maximumZ;
+					
+					if(child instanceof BoundingVolumeHierarchy.LeafNode) {
+						final Intersectable[] primitives = BoundingVolumeHierarchy.LeafNode.class.cast(child).primitives;
+						
+						final int leafIndex = this.leafCount++;
+						
+						this.leaves[leafIndex * 2 + 0] = this.primitiveCount;
+						this.leaves[leafIndex * 2 + 1] = primitives.length;
+						
+						for(final Intersectable primitive : primitives) {
+							this.primitives[this.primitiveCount++] = primitive;
+						}
+						
+						this.children[index * width + lane] = -leafIndex - 1;
+					} else {
+						this.children[index * width + lane] = this.nodeCount;
+						
+						depth = Ints.max(depth, collapse(child));
+					}
+				}
+				
+				return depth + 1;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private static double doComputeSurfaceArea(final BoundingVolumeHierarchy.Node node) {
+				final double x = node.maximumX - node.minimumX;
+				final double y = node.maximumY - node.minimumY;
+				final double z = node.maximumZ - node.minimumZ;
+				
+				return 2.0D * (x * y + y * z + z * x);
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Stack {
+			private final Shape.Hit hit;
+			private final double[] lanes;
+			private final double[] ts;
+			private final int[] indices;
+			private Intersectable intersectable;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Stack(final int capacity, final int width) {
+				this.hit = new Shape.Hit();
+				this.lanes = new double[width];
+				this.ts = new double[capacity];
+				this.indices = new int[capacity];
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -53,19 +53,17 @@ public final class Camera {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	public Ray3D generatePrimaryRay(final double pixelX, final double pixelY, final double sampleU, final double sampleV) {
-		final Point2D sample = doSample(pixelX, pixelY, sampleU, sampleV);
+	public Ray3D generatePrimaryRay(final double pixelX, final double pixelY, final Sampler sampler) {
+		final Point2D sample = sampler.sample2D();
 		
-		final Vector3D u = Vector3D.multiply(this.u, sample.x);
-		final Vector3D v = Vector3D.multiply(this.v, sample.y);
-		final Vector3D w = this.w;
-		
-		final Vector3D direction = Vector3D.add(u, v, w);
-		final Vector3D directionNormalized = Vector3D.normalize(direction);
+		final double sampleU = Doubles.floor(sample.x * 2.0D);
+		final double sampleV = Doubles.floor(sample.y * 2.0D);
 		
-		final Point3D origin = Point3D.add(this.eye, Vector3D.multiply(direction, 140.0D));
-		
-		return new Ray3D(origin, directionNormalized);
+		return doGeneratePrimaryRay(doSample(pixelX, pixelY, sampleU, sampleV, Point2D.sampleExactInverseTentFilter(new Point2D(sample.x * 2.0D - sampleU, sample.y * 2.0D - sampleV))));
+	}
+	
+	public Ray3D generatePrimaryRay(final double pixelX, final double pixelY, final double sampleU, final double sampleV) {
+		return doGeneratePrimaryRay(doSample(pixelX, pixelY, sampleU, sampleV, Point2D.sampleExactInverseTentFilter()));
 	}
 	
 	public Vector3D getU() {
@@ -82,7 +80,7 @@ public final class Camera {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private Point2D doSample(final double pixelX, final double pixelY, final double sampleU, final double sampleV) {
+	private Point2D doSample(final double pixelX, final double pixelY, final double sampleU, final double sampleV, final Point2D sample) {
 		/*
 		 * pixelX = [0, resolutionX)
 		 * pixelY = [0, resolutionY)
@@ -100,9 +98,6 @@ public final class Camera {
 		 * sampleV2 = [~-0.5, ~0.5]
 		 */
 		
-//		Generate a Point2D instance whose x and y fields contains doubles in the range [-1.0D, 1.0D]:
-		final Point2D sample = Point2D.sampleExactInverseTentFilter();
-		
 //		The variables sampleU and sampleV are in the range [0, 5):
 		final double sampleU1 = (sampleU + 0.5D + sample.x) / 2.0D;
 		final double sampleV1 = (sampleV + 0.5D + sample.y) / 2.0D;
@@ -113,4 +108,17 @@ public final class Camera {
 		
 		return new Point2D(sampleU2, sampleV2);
 	}
+	
+	private Ray3D doGeneratePrimaryRay(final Point2D sample) {
+		final Vector3D u = Vector3D.multiply(this.u, sample.x);
+		final Vector3D v = Vector3D.multiply(this.v, sample.y);
+		final Vector3D w = this.w;
+		
+		final Vector3D direction = Vector3D.add(u, v, w);
+		final Vector3D directionNormalized = Vector3D.normalize(direction);
+		
+		final Point3D origin = Point3D.add(this.eye, Vector3D.multiply(direction, 140.0D));
+		
+		return new Ray3D(origin, directionNormalized);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,313 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+import org.macroing.art4j.color.Color3D;
+import org.macroing.art4j.color.Color4D;
+import org.macroing.art4j.image.Image;
+import org.macroing.art4j.pixel.Color4DPixelOperator;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+public final class Film {
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final double[] luminanceSquares;
+	private final double[] radiances;
+	private final int[] sampleCounts;
+	private final int resolutionX;
+	private final int resolutionY;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public Film(final int resolutionX, final int resolutionY) {
+		this.resolutionX = Ints.requireRange(resolutionX, 1, Integer.MAX_VALUE, "resolutionX");
+		this.resolutionY = Ints.requireRange(resolutionY, 1, Integer.MAX_VALUE, "resolutionY");
+		this.luminanceSquares = new double[resolutionX * resolutionY];
+		this.radiances = new double[resolutionX * resolutionY * 3];
+		this.sampleCounts = new int[resolutionX * resolutionY];
+	}
+	
+	private Film(final Film film) {
+		this.luminanceSquares = film.luminanceSquares.clone();
+		this.radiances = film.radiances.clone();
+		this.sampleCounts = film.sampleCounts.clone();
+		this.resolutionX = film.resolutionX;
+		this.resolutionY = film.resolutionY;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public Color3D getColor3D(final int pixelX, final int pixelY) {
+		final int pixelIndex = doGetPixelIndex(pixelX, pixelY);
+		
+		final int sampleCount = this.sampleCounts[pixelIndex];
+		
+		if(sampleCount == 0) {
+			return Color3D.BLACK;
+		}
+		
+		return new Color3D(this.radiances[pixelIndex * 3 + 0] / sampleCount, this.radiances[pixelIndex * 3 + 1] / sampleCount, this.radiances[pixelIndex * 3 + 2] / sampleCount);
+	}
+	
+	public Film copy() {
+		return new Film(this);
+	}
+	
+	public Image toImage() {
+		final Image image = new Image(this.resolutionX, this.resolutionY, Color4D.BLACK);
+		
+		for(int pixelIndex = 0; pixelIndex < this.sampleCounts.length; pixelIndex++) {
+			final int sampleCount = this.sampleCounts[pixelIndex];
+			
+			if(sampleCount > 0) {
+				final double r = Doubles.saturate(this.radiances[pixelIndex * 3 + 0] / sampleCount, 0.0D, 1.0D);
+				final double g = Doubles.saturate(this.radiances[pixelIndex * 3 + 1] / sampleCount, 0.0D, 1.0D);
+				final double b = Doubles.saturate(this.radiances[pixelIndex * 3 + 2] / sampleCount, 0.0D, 1.0D);
+				
+				image.setColor3D(new Color3D(r, g, b), pixelIndex);
+			}
+		}
+		
+		image.fillD(Color4DPixelOperator.redoGammaCorrection());
+		image.flipY();
+		
+		return image;
+	}
+	
+	public Image toSampleCountImage() {
+		final Image image = new Image(this.resolutionX, this.resolutionY, Color4D.BLACK);
+		
+		int sampleCountMaximum = 1;
+		
+		for(final int sampleCount : this.sampleCounts) {
+			sampleCountMaximum = Ints.max(sampleCountMaximum, sampleCount);
+		}
+		
+		for(int pixelIndex = 0; pixelIndex < this.sampleCounts.length; pixelIndex++) {
+			final double t = (double)(this.sampleCounts[pixelIndex]) / (double)(sampleCountMaximum);
+			
+			final double r = Doubles.saturate(2.0D * t - 0.5D, 0.0D, 1.0D);
+			final double g = Doubles.saturate(1.5D - Doubles.abs(4.0D * t - 2.0D), 0.0D, 1.0D);
+			final double b = Doubles.saturate(1.5D - 2.0D * t, 0.0D, 1.0D);
+			
+			image.setColor3D(new Color3D(r, g, b), pixelIndex);
+		}
+		
+		image.flipY();
+		
+		return image;
+	}
+	
+	public double getRelativeError(final int pixelX, final int pixelY) {
+		final int sampleCount = this.sampleCounts[doGetPixelIndex(pixelX, pixelY)];
+		
+		if(sampleCount < 2) {
+			return Doubles.MAX_VALUE;
+		}
+		
+		double luminanceSum = 0.0D;
+		double luminanceSquareSum = 0.0D;
+		
+		int luminanceCount = 0;
+		
+		for(int y = Ints.max(pixelY - 1, 0); y <= Ints.min(pixelY + 1, this.resolutionY - 1); y++) {
+			for(int x = Ints.max(pixelX - 1, 0); x <= Ints.min(pixelX + 1, this.resolutionX - 1); x++) {
+				final int pixelIndex = y * this.resolutionX + x;
+				
+				luminanceSum += doGetLuminance(this.radiances[pixelIndex * 3 + 0], this.radiances[pixelIndex * 3 + 1], this.radiances[pixelIndex * 3 + 2]);
+				luminanceSquareSum += this.luminanceSquares[pixelIndex];
+				luminanceCount += this.sampleCounts[pixelIndex];
+			}
+		}
+		
+		final double luminance = luminanceSum / luminanceCount;
+		final double luminanceSquare = luminanceSquareSum / luminanceCount;
+		
+		final double variance = Doubles.max(luminanceSquare - luminance * luminance, 0.0D) * luminanceCount / (luminanceCount - 1);
+		
+		final double standardError = Doubles.sqrt(variance / sampleCount);
+		
+		return standardError / Doubles.max(luminance, 1.0e-3D);
+	}
+	
+	public int getResolutionX() {
+		return this.resolutionX;
+	}
+	
+	public int getResolutionY() {
+		return this.resolutionY;
+	}
+	
+	public int getSampleCount(final int pixelX, final int pixelY) {
+		return this.sampleCounts[doGetPixelIndex(pixelX, pixelY)];
+	}
+	
+	public void addSample(final int pixelX, final int pixelY, final double r, final double g, final double b) {
+		final int pixelIndex = doGetPixelIndex(pixelX, pixelY);
+		
+		final double luminance = doGetLuminance(r, g, b);
+		
+		this.luminanceSquares[pixelIndex] += luminance * luminance;
+		this.radiances[pixelIndex * 3 + 0] += r;
+		this.radiances[pixelIndex * 3 + 1] += g;
+		this.radiances[pixelIndex * 3 + 2] += b;
+		this.sampleCounts[pixelIndex]++;
+	}
+	
+	public void clear() {
+		for(int i = 0; i < this.luminanceSquares.length; i++) {
+			this.luminanceSquares[i] = 0.0D;
+		}
+		
+		for(int i = 0; i < this.radiances.length; i++) {
+			this.radiances[i] = 0.0D;
+		}
+		
+		for(int i = 0; i < this.sampleCounts.length; i++) {
+			this.sampleCounts[i] = 0;
+		}
+	}
+	
+	public void read(final FileChannel fileChannel) {
+		Objects.requireNonNull(fileChannel, "fileChannel == null");
+		
+		try {
+			final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			
+			doRead(fileChannel, byteBuffer, 8);
+			
+			final int resolutionX = byteBuffer.getInt();
+			final int resolutionY = byteBuffer.getInt();
+			
+			if(resolutionX != this.resolutionX || resolutionY != this.resolutionY) {
+				throw new IllegalArgumentException("The resolution " + resolutionX + "x" + resolutionY + " does not match " + this.resolutionX + "x" + this.resolutionY + ".");
+			}
+			
+			for(int i = 0; i < this.radiances.length; i++) {
+				if(!byteBuffer.hasRemaining()) {
+					doRead(fileChannel, byteBuffer, Ints.min((this.radiances.length - i) * 8, BUFFER_SIZE));
+				}
+				
+				this.radiances[i] = byteBuffer.getDouble();
+			}
+			
+			for(int i = 0; i < this.luminanceSquares.length; i++) {
+				if(!byteBuffer.hasRemaining()) {
+					doRead(fileChannel, byteBuffer, Ints.min((this.luminanceSquares.length - i) * 8, BUFFER_SIZE));
+				}
+				
+				this.luminanceSquares[i] = byteBuffer.getDouble();
+			}
+			
+			for(int i = 0; i < this.sampleCounts.length; i++) {
+				if(!byteBuffer.hasRemaining()) {
+					doRead(fileChannel, byteBuffer, Ints.min((this.sampleCounts.length - i) * 4, BUFFER_SIZE));
+				}
+				
+				this.sampleCounts[i] = byteBuffer.getInt();
+			}
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public void write(final FileChannel fileChannel) {
+		Objects.requireNonNull(fileChannel, "fileChannel == null");
+		
+		try {
+			final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			
+			byteBuffer.putInt(this.resolutionX);
+			byteBuffer.putInt(this.resolutionY);
+			
+			for(final double radiance : this.radiances) {
+				if(byteBuffer.remaining() < 8) {
+					doWrite(fileChannel, byteBuffer);
+				}
+				
+				byteBuffer.putDouble(radiance);
+			}
+			
+			for(final double luminanceSquare : this.luminanceSquares) {
+				if(byteBuffer.remaining() < 8) {
+					doWrite(fileChannel, byteBuffer);
+				}
+				
+				byteBuffer.putDouble(luminanceSquare);
+			}
+			
+			for(final int sampleCount : this.sampleCounts) {
+				if(byteBuffer.remaining() < 4) {
+					doWrite(fileChannel, byteBuffer);
+				}
+				
+				byteBuffer.putInt(sampleCount);
+			}
+			
+			doWrite(fileChannel, byteBuffer);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private int doGetPixelIndex(final int pixelX, final int pixelY) {
+		return Ints.requireRange(pixelY, 0, this.resolutionY - 1, "pixelY") * this.resolutionX + Ints.requireRange(pixelX, 0, this.resolutionX - 1, "pixelX");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doGetLuminance(final double r, final double g, final double b) {
+		return 0.2126D * r + 0.7152D * g + 0.0722D * b;
+	}
+	
+	private static void doRead(final FileChannel fileChannel, final ByteBuffer byteBuffer, final int length) throws IOException {
+		byteBuffer.clear();
+		byteBuffer.limit(length);
+		
+		while(byteBuffer.hasRemaining()) {
+			if(fileChannel.read(byteBuffer) < 0) {
+				throw new EOFException();
+			}
+		}
+		
+		byteBuffer.flip();
+	}
+	
+	private static void doWrite(final FileChannel fileChannel, final ByteBuffer byteBuffer) throws IOException {
+		byteBuffer.flip();
+		
+		while(byteBuffer.hasRemaining()) {
+			fileChannel.write(byteBuffer);
+		}
+		
+		byteBuffer.clear();
+	}
+}
\ No newline at end of file
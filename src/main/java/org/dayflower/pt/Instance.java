@@ -0,0 +1,110 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.matrix.Matrix44D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.java.lang.Doubles;
+
+public final class Instance implements Intersectable {
+	private final AccelerationStructure accelerationStructure;
+	private final BoundingVolume3D boundingVolume;
+	private final Transform transform;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public Instance(final AccelerationStructure accelerationStructure) {
+		this(accelerationStructure, new Transform());
+	}
+	
+	public Instance(final AccelerationStructure accelerationStructure, final Transform transform) {
+		this.accelerationStructure = Objects.requireNonNull(accelerationStructure, "accelerationStructure == null");
+		this.transform = Objects.requireNonNull(transform, "transform == null");
+		this.boundingVolume = this.accelerationStructure.getBoundingVolume().transform(this.transform.getObjectToWorld());
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public AccelerationStructure getAccelerationStructure() {
+		return this.accelerationStructure;
+	}
+	
+	@Override
+	public BoundingVolume3D getBoundingVolume() {
+		return this.boundingVolume;
+	}
+	
+	@Override
+	public Optional<Intersection> createIntersection(final Ray3D rayWS, final double tWS, final double tMinimum, final double tMaximum, final Shape.Hit hit) {
+		return intersection(rayWS, tMinimum, tMaximum);
+	}
+	
+	@Override
+	public Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+		if(this.boundingVolume.contains(rayWS.getOrigin()) || this.boundingVolume.intersects(rayWS, tMinimum, tMaximum)) {
+			final Matrix44D worldToObject = this.transform.getWorldToObject();
+			
+			final Ray3D rayOS = worldToObject.transform(rayWS);
+			
+			final Optional<Intersection> optionalIntersection = this.accelerationStructure.intersection(rayOS, tMinimum, worldToObject.transformT(rayWS, rayOS, tMaximum));
+			
+			if(optionalIntersection.isPresent()) {
+				return Optional.of(optionalIntersection.get().transform(this.transform));
+			}
+		}
+		
+		return Optional.empty();
+	}
+	
+	public Transform getTransform() {
+		return this.transform;
+	}
+	
+	@Override
+	public boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+		if(this.boundingVolume.contains(rayWS.getOrigin()) || this.boundingVolume.intersects(rayWS, tMinimum, tMaximum)) {
+			final Matrix44D worldToObject = this.transform.getWorldToObject();
+			
+			final Ray3D rayOS = worldToObject.transform(rayWS);
+			
+			return this.accelerationStructure.intersects(rayOS, tMinimum, worldToObject.transformT(rayWS, rayOS, tMaximum));
+		}
+		
+		return false;
+	}
+	
+	@Override
+	public double intersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum, final Shape.Hit hit) {
+		if(this.boundingVolume.contains(rayWS.getOrigin()) || this.boundingVolume.intersects(rayWS, tMinimum, tMaximum)) {
+			final Matrix44D worldToObject = this.transform.getWorldToObject();
+			
+			final Ray3D rayOS = worldToObject.transform(rayWS);
+			
+			final double scale = Math.transformLength(worldToObject, rayWS.getDirection());
+			
+			return this.accelerationStructure.intersectionT(rayOS, tMinimum, tMaximum * scale) / scale;
+		}
+		
+		return Doubles.NaN;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,256 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.art4j.color.Color3D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+public abstract class Integrator {
+	protected Integrator() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public final Color3D radiance(final Scene scene, final Ray3D ray) {
+		final double[] radiance = new double[3];
+		
+		radiance(scene, ray, radiance);
+		
+		return new Color3D(radiance[0], radiance[1], radiance[2]);
+	}
+	
+	public final void radiance(final Scene scene, final Ray3D ray, final double[] radiance) {
+		radiance(scene, ray, Sampler.threadLocalRandom(), radiance);
+	}
+	
+	public abstract void radiance(final Scene scene, final Ray3D ray, final Sampler sampler, final double[] radiance);
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static Integrator pathTracing() {
+		return pathTracing(5, 20);
+	}
+	
+	public static Integrator pathTracing(final int minimumDepth, final int maximumDepth) {
+		return new PathTracingIntegrator(Ints.requireRange(minimumDepth, 0, Integer.MAX_VALUE, "minimumDepth"), Ints.requireRange(maximumDepth, minimumDepth, Integer.MAX_VALUE, "maximumDepth"));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class PathTracingIntegrator extends Integrator {
+		private static final int DIMENSION_OFFSET = 2;
+		private static final int DIMENSION_OFFSET_LIGHT = 3;
+		private static final int DIMENSION_STRIDE = 7;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final int maximumDepth;
+		private final int minimumDepth;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public PathTracingIntegrator(final int minimumDepth, final int maximumDepth) {
+			this.maximumDepth = maximumDepth;
+			this.minimumDepth = minimumDepth;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public void radiance(final Scene scene, final Ray3D ray, final Sampler sampler, final double[] radiance) {
+			Objects.requireNonNull(scene, "scene == null");
+			Objects.requireNonNull(ray, "ray == null");
+			Objects.requireNonNull(sampler, "sampler == null");
+			Objects.requireNonNull(radiance, "radiance == null");
+			
+			final LightSampler lightSampler = scene.getLightSampler();
+			
+			double radianceR = 0.0D;
+			double radianceG = 0.0D;
+			double radianceB = 0.0D;
+			double throughputR = 1.0D;
+			double throughputG = 1.0D;
+			double throughputB = 1.0D;
+			
+			Intersection previousIntersection = null;
+			
+			Ray3D currentRay = ray;
+			
+			boolean isSpecularBounce = true;
+			
+			double previousProbabilityDensityFunctionValue = 0.0D;
+			
+			for(int depth = 0; depth <= this.maximumDepth; depth++) {
+				final Optional<Intersection> optionalIntersection = scene.intersection(currentRay);
+				
+				if(!optionalIntersection.isPresent()) {
+					break;
+				}
+				
+				final Intersection intersection = optionalIntersection.get();
+				
+				final Primitive primitive = intersection.getPrimitive();
+				
+				sampler.setDimension(DIMENSION_OFFSET + depth * DIMENSION_STRIDE);
+				
+				final Optional<Material.Result> optionalResult = primitive.getMaterial().compute(intersection, sampler);
+				
+				if(!optionalResult.isPresent()) {
+					break;
+				}
+				
+				final Material.Result result = optionalResult.get();
+				
+				final Color3D emission = result.getEmission();
+				final Color3D reflectance = result.getReflectance();
+				
+				if(!emission.isBlack()) {
+					final double weight = isSpecularBounce || previousIntersection == null || !scene.isLight(primitive) ? 1.0D : doComputePowerHeuristic(previousProbabilityDensityFunctionValue, primitive.evaluatePDF(previousIntersection.getSurfaceIntersectionPointWS(), intersection.getSurfaceIntersectionPointWS()) * lightSampler.evaluatePMF(previousIntersection.getSurfaceIntersectionPointWS(), previousIntersection.getSurfaceNormalWS(), primitive));
+					
+					radianceR += throughputR * emission.r * weight;
+					radianceG += throughputG * emission.g * weight;
+					radianceB += throughputB * emission.b * weight;
+				}
+				
+				if(result.hasNonSpecularBXDF() && !lightSampler.getLights().isEmpty()) {
+					sampler.setDimension(DIMENSION_OFFSET + depth * DIMENSION_STRIDE + DIMENSION_OFFSET_LIGHT);
+					
+					final Color3D radianceDirect = doSampleLight(scene, lightSampler, intersection, result, sampler);
+					
+					radianceR += throughputR * radianceDirect.r;
+					radianceG += throughputG * radianceDirect.g;
+					radianceB += throughputB * radianceDirect.b;
+				}
+				
+				if(reflectance.isBlack()) {
+					break;
+				}
+				
+				throughputR *= reflectance.r;
+				throughputG *= reflectance.g;
+				throughputB *= reflectance.b;
+				
+				if(depth >= this.minimumDepth) {
+					final double probability = Doubles.min(Doubles.max(throughputR, throughputG, throughputB), 1.0D);
+					
+					sampler.setDimension(DIMENSION_OFFSET + depth * DIMENSION_STRIDE + DIMENSION_STRIDE - 1);
+					
+					if(sampler.sample1D() >= probability) {
+						break;
+					}
+					
+					throughputR /= probability;
+					throughputG /= probability;
+					throughputB /= probability;
+				}
+				
+				previousIntersection = intersection;
+				
+				currentRay = result.getRay();
+				
+				isSpecularBounce = result.isSpecular();
+				
+				previousProbabilityDensityFunctionValue = result.getProbabilityDensityFunctionValue();
+			}
+			
+			radiance[0] = radianceR;
+			radiance[1] = radianceG;
+			radiance[2] = radianceB;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static Color3D doSampleLight(final Scene scene, final LightSampler lightSampler, final Intersection intersection, final Material.Result result, final Sampler sampler) {
+			final Point3D surfaceIntersectionPoint = intersection.getSurfaceIntersectionPointWS();
+			
+			final Optional<LightSampler.Result> optionalLightSamplerResult = lightSampler.sample(surfaceIntersectionPoint, intersection.getSurfaceNormalWS(), sampler.sample1D());
+			
+			if(!optionalLightSamplerResult.isPresent()) {
+				return Color3D.BLACK;
+			}
+			
+			final LightSampler.Result lightSamplerResult = optionalLightSamplerResult.get();
+			
+			final Primitive light = lightSamplerResult.getLight();
+			
+			final Optional<Shape.SurfaceSample> optionalSurfaceSample = light.sample(surfaceIntersectionPoint, sampler.sample2D());
+			
+			if(!optionalSurfaceSample.isPresent()) {
+				return Color3D.BLACK;
+			}
+			
+			final Shape.SurfaceSample surfaceSample = optionalSurfaceSample.get();
+			
+			final double probabilityDensityFunctionValue = surfaceSample.getProbabilityDensityFunctionValue() * lightSamplerResult.getProbabilityMassFunctionValue();
+			
+			if(!(probabilityDensityFunctionValue > 0.0D) || Doubles.isInfinite(probabilityDensityFunctionValue)) {
+				return Color3D.BLACK;
+			}
+			
+			final Vector3D direction = Vector3D.direction(surfaceIntersectionPoint, surfaceSample.getPoint());
+			
+			final double distance = direction.length();
+			
+			if(distance < Math.EPSILON) {
+				return Color3D.BLACK;
+			}
+			
+			final Vector3D directionNormalized = Vector3D.normalize(direction);
+			
+			final Color3D reflectance = result.evaluateReflectance(directionNormalized);
+			
+			if(reflectance.isBlack()) {
+				return Color3D.BLACK;
+			}
+			
+			final Ray3D ray = new Ray3D(surfaceIntersectionPoint, directionNormalized);
+			
+			final Optional<Intersection> optionalIntersectionLight = light.createIntersection(ray, distance, 0.0D, Doubles.MAX_VALUE, new Shape.Hit());
+			
+			if(!optionalIntersectionLight.isPresent()) {
+				return Color3D.BLACK;
+			}
+			
+			final Color3D emission = light.getMaterial().computeEmission(optionalIntersectionLight.get());
+			
+			if(emission.isBlack() || scene.isOccluded(ray, Math.EPSILON, distance - Math.EPSILON)) {
+				return Color3D.BLACK;
+			}
+			
+			final double weight = doComputePowerHeuristic(probabilityDensityFunctionValue, result.evaluatePDF(directionNormalized));
+			
+			return Color3D.multiply(Color3D.divide(Color3D.multiply(reflectance, emission), probabilityDensityFunctionValue), weight);
+		}
+		
+		private static double doComputePowerHeuristic(final double probabilityDensityFunctionValueA, final double probabilityDensityFunctionValueB) {
+			final double a = probabilityDensityFunctionValueA * probabilityDensityFunctionValueA;
+			final double b = probabilityDensityFunctionValueB * probabilityDensityFunctionValueB;
+			
+			return a + b > 0.0D ? a / (a + b) : 0.0D;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.ray.Ray3D;
+
+public interface Intersectable {
+	BoundingVolume3D getBoundingVolume();
+	
+	Optional<Intersection> createIntersection(final Ray3D rayWS, final double tWS, final double tMinimum, final double tMaximum, final Shape.Hit hit);
+	
+	Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum);
+	
+	boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum);
+	
+	double intersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum, final Shape.Hit hit);
+}
\ No newline at end of file
@@ -19,62 +19,113 @@
 package org.dayflower.pt;
 
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Supplier;
 
 import org.macroing.geo4j.common.Point2D;
 import org.macroing.geo4j.common.Point3D;
 import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.matrix.Matrix44D;
 import org.macroing.geo4j.onb.OrthonormalBasis33D;
 import org.macroing.geo4j.ray.Ray3D;
 
 public final class Intersection {
+	private final Matrix44D objectToWorld;
+	private final Matrix44D worldToObject;
 	private final Primitive primitive;
 	private final Ray3D rayOS;
 	private final Ray3D rayWS;
-	private final Supplier<OrthonormalBasis33D> orthonormalBasisOS;
-	private final Supplier<OrthonormalBasis33D> orthonormalBasisWS;
-	private final Supplier<Point2D> textureCoordinates;
-	private final Supplier<Point3D> surfaceIntersectionPointOS;
-	private final Supplier<Point3D> surfaceIntersectionPointWS;
+	private final Shape.Hit hit;
 	private final double tOS;
 	private final double tWS;
+	private OrthonormalBasis33D orthonormalBasisOS;
+	private OrthonormalBasis33D orthonormalBasisWS;
+	private Point2D textureCoordinates;
+	private Point3D surfaceIntersectionPointOS;
+	private Point3D surfaceIntersectionPointWS;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	public Intersection(final Primitive primitive, final Ray3D rayOS, final double tOS) {
+		this(primitive, primitive.getTransform().getObjectToWorld(), primitive.getTransform().getWorldToObject(), rayOS, tOS);
+	}
+	
+	public Intersection(final Primitive primitive, final Matrix44D objectToWorld, final Matrix44D worldToObject, final Ray3D rayOS, final double tOS) {
+		this(primitive, objectToWorld, worldToObject, rayOS, Objects.requireNonNull(objectToWorld, "objectToWorld == null").transform(Objects.requireNonNull(rayOS, "rayOS == null")), tOS, new Shape.Hit());
+	}
+	
+	public Intersection(final Primitive primitive, final Matrix44D objectToWorld, final Matrix44D worldToObject, final Ray3D rayOS, final Ray3D rayWS, final double tOS, final double tWS) {
+		this(primitive, objectToWorld, worldToObject, rayOS, rayWS, tOS, tWS, new Shape.Hit());
+	}
+	
+	public Intersection(final Primitive primitive, final Matrix44D objectToWorld, final Matrix44D worldToObject, final Ray3D rayOS, final Ray3D rayWS, final double tOS, final double tWS, final Shape.Hit hit) {
 		this.primitive = Objects.requireNonNull(primitive, "primitive == null");
+		this.objectToWorld = Objects.requireNonNull(objectToWorld, "objectToWorld == null");
+		this.worldToObject = Objects.requireNonNull(worldToObject, "worldToObject == null");
 		this.rayOS = Objects.requireNonNull(rayOS, "rayOS == null");
-		this.rayWS = getPrimitive().getTransform().getObjectToWorld().transform(getRayOS());
+		this.rayWS = Objects.requireNonNull(rayWS, "rayWS == null");
+		this.hit = Objects.requireNonNull(hit, "hit == null");
 		this.tOS = tOS;
-		this.tWS = getPrimitive().getTransform().getObjectToWorld().transformT(getRayOS(), getRayWS(), getTOS());
-		this.orthonormalBasisOS = new LazySupplier<>(() -> getPrimitive().getShape().computeOrthonormalBasis(getRayOS(), getTOS()));
-		this.orthonormalBasisWS = new LazySupplier<>(() -> getOrthonormalBasisOS().transformTranspose(getPrimitive().getTransform().getWorldToObject()));
-		this.textureCoordinates = new LazySupplier<>(() -> getPrimitive().getShape().computeTextureCoordinates(getRayOS(), getTOS()));
-		this.surfaceIntersectionPointOS = new LazySupplier<>(() -> Point3D.add(getRayOS().getOrigin(), getRayOS().getDirection(), getTOS()));
-		this.surfaceIntersectionPointWS = new LazySupplier<>(() -> getPrimitive().getTransform().getObjectToWorld().transformAndDivide(getSurfaceIntersectionPointOS()));
+		this.tWS = tWS;
+	}
+	
+	private Intersection(final Primitive primitive, final Matrix44D objectToWorld, final Matrix44D worldToObject, final Ray3D rayOS, final Ray3D rayWS, final double tOS, final Shape.Hit hit) {
+		this(primitive, objectToWorld, worldToObject, rayOS, rayWS, tOS, objectToWorld.transformT(rayOS, rayWS, tOS), hit);
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	public Intersection transform(final Transform transform) {
+		final Matrix44D objectToWorld = Matrix44D.multiply(transform.getObjectToWorld(), getObjectToWorld());
+		final Matrix44D worldToObject = Matrix44D.multiply(getWorldToObject(), transform.getWorldToObject());
+		
+		return new Intersection(getPrimitive(), objectToWorld, worldToObject, getRayOS(), objectToWorld.transform(getRayOS()), getTOS(), this.hit);
+	}
+	
+	public Matrix44D getObjectToWorld() {
+		return this.objectToWorld;
+	}
+	
+	public Matrix44D getWorldToObject() {
+		return this.worldToObject;
+	}
+	
 	public OrthonormalBasis33D getOrthonormalBasisOS() {
-		return this.orthonormalBasisOS.get();
+		if(this.orthonormalBasisOS == null) {
+			this.orthonormalBasisOS = getPrimitive().getShape().computeOrthonormalBasis(getRayOS(), getTOS(), this.hit);
+		}
+		
+		return this.orthonormalBasisOS;
 	}
 	
 	public OrthonormalBasis33D getOrthonormalBasisWS() {
-		return this.orthonormalBasisWS.get();
+		if(this.orthonormalBasisWS == null) {
+			this.orthonormalBasisWS = getOrthonormalBasisOS().transformTranspose(getWorldToObject());
+		}
+		
+		return this.orthonormalBasisWS;
 	}
 	
 	public Point2D getTextureCoordinates() {
-		return this.textureCoordinates.get();
+		if(this.textureCoordinates == null) {
+			this.textureCoordinates = getPrimitive().getShape().computeTextureCoordinates(getRayOS(), getTOS(), this.hit);
+		}
+		
+		return this.textureCoordinates;
 	}
 	
 	public Point3D getSurfaceIntersectionPointOS() {
-		return this.surfaceIntersectionPointOS.get();
+		if(this.surfaceIntersectionPointOS == null) {
+			this.surfaceIntersectionPointOS = Point3D.add(getRayOS().getOrigin(), getRayOS().getDirection(), getTOS());
+		}
+		
+		return this.surfaceIntersectionPointOS;
 	}
 	
 	public Point3D getSurfaceIntersectionPointWS() {
-		return this.surfaceIntersectionPointWS.get();
+		if(this.surfaceIntersectionPointWS == null) {
+			this.surfaceIntersectionPointWS = getObjectToWorld().transformAndDivide(getSurfaceIntersectionPointOS());
+		}
+		
+		return this.surfaceIntersectionPointWS;
 	}
 	
 	public Primitive getPrimitive() {
@@ -112,25 +163,4 @@ public final class Intersection {
 	public double getTWS() {
 		return this.tWS;
 	}
-	
-	////////////////////////////////////////////////////////////////////////////////////////////////////
-	
-	private static final class LazySupplier<T> implements Supplier<T> {
-		private final AtomicReference<T> value;
-		private final Supplier<T> valueSupplier;
-		
-		////////////////////////////////////////////////////////////////////////////////////////////////////
-		
-		public LazySupplier(final Supplier<T> valueSupplier) {
-			this.value = new AtomicReference<>();
-			this.valueSupplier = Objects.requireNonNull(valueSupplier, "valueSupplier == null");
-		}
-		
-		////////////////////////////////////////////////////////////////////////////////////////////////////
-		
-		@Override
-		public T get() {
-			return this.value.updateAndGet(value -> value != null ? value : Objects.requireNonNull(this.valueSupplier.get(), "valueSupplier.get() == null"));
-		}
-	}
 }
\ No newline at end of file
@@ -0,0 +1,641 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.common.Point2D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+public abstract class LightSampler {
+	private static final double ONE_MINUS_EPSILON = 0x1.fffffffffffffp-1D;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	protected LightSampler() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public abstract List<Primitive> getLights();
+	
+	public abstract Optional<Result> sample(final Point3D referencePoint, final Vector3D surfaceNormal, final double sample);
+	
+	public abstract double evaluatePMF(final Point3D referencePoint, final Vector3D surfaceNormal, final Primitive light);
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static LightSampler boundingVolumeHierarchy(final List<Primitive> lights) {
+		return BoundingVolumeHierarchyLightSampler.create(lights);
+	}
+	
+	public static LightSampler uniform(final List<Primitive> lights) {
+		return new UniformLightSampler(lights);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static final class Result {
+		private final Primitive light;
+		private final double probabilityMassFunctionValue;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Result(final Primitive light, final double probabilityMassFunctionValue) {
+			this.light = Objects.requireNonNull(light, "light == null");
+			this.probabilityMassFunctionValue = probabilityMassFunctionValue;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Primitive getLight() {
+			return this.light;
+		}
+		
+		public double getProbabilityMassFunctionValue() {
+			return this.probabilityMassFunctionValue;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class BoundingVolumeHierarchyLightSampler extends LightSampler {
+		private static final int BUCKET_COUNT = 12;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final LightBounds[] nodeLightBounds;
+		private final List<Primitive> lights;
+		private final Map<Primitive, Integer> lightNodeIndices;
+		private final boolean[] nodeLeaves;
+		private final int[] nodeOffsets;
+		private final int[] nodeParents;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private BoundingVolumeHierarchyLightSampler(final LightBounds[] nodeLightBounds, final List<Primitive> lights, final Map<Primitive, Integer> lightNodeIndices, final boolean[] nodeLeaves, final int[] nodeOffsets, final int[] nodeParents) {
+			this.nodeLightBounds = nodeLightBounds;
+			this.lights = lights;
+			this.lightNodeIndices = lightNodeIndices;
+			this.nodeLeaves = nodeLeaves;
+			this.nodeOffsets = nodeOffsets;
+			this.nodeParents = nodeParents;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public List<Primitive> getLights() {
+			return this.lights;
+		}
+		
+		@Override
+		public Optional<Result> sample(final Point3D referencePoint, final Vector3D surfaceNormal, final double sample) {
+			if(this.lights.isEmpty()) {
+				return Optional.empty();
+			}
+			
+			final LightBounds[] nodeLightBounds = this.nodeLightBounds;
+			
+			final boolean[] nodeLeaves = this.nodeLeaves;
+			
+			final int[] nodeOffsets = this.nodeOffsets;
+			
+			double currentSample = sample;
+			double probabilityMassFunctionValue = 1.0D;
+			
+			int nodeIndex = 0;
+			
+			while(!nodeLeaves[nodeIndex]) {
+				final int nodeIndexL = nodeIndex + 1;
+				final int nodeIndexR = nodeOffsets[nodeIndex];
+				
+				final double importanceL = nodeLightBounds[nodeIndexL].computeImportance(referencePoint, surfaceNormal);
+				final double importanceR = nodeLightBounds[nodeIndexR].computeImportance(referencePoint, surfaceNormal);
+				final double importance = importanceL + importanceR;
+				
+				if(!(importance > 0.0D)) {
+					return Optional.empty();
+				}
+				
+				final double probabilityL = importanceL / importance;
+				
+				if(currentSample < probabilityL) {
+					currentSample = Doubles.min(currentSample / probabilityL, ONE_MINUS_EPSILON);
+					
+					probabilityMassFunctionValue *= probabilityL;
+					
+					nodeIndex = nodeIndexL;
+				} else {
+					currentSample = Doubles.min((currentSample - probabilityL) / (1.0D - probabilityL), ONE_MINUS_EPSILON);
+					
+					probabilityMassFunctionValue *= importanceR / importance;
+					
+					nodeIndex = nodeIndexR;
+				}
+			}
+			
+			if(nodeIndex > 0 || nodeLightBounds[nodeIndex].computeImportance(referencePoint, surfaceNormal) > 0.0D) {
+				return Optional.of(new Result(this.lights.get(nodeOffsets[nodeIndex]), probabilityMassFunctionValue));
+			}
+			
+			return Optional.empty();
+		}
+		
+		@Override
+		public double evaluatePMF(final Point3D referencePoint, final Vector3D surfaceNormal, final Primitive light) {
+			final Integer lightNodeIndex = this.lightNodeIndices.get(light);
+			
+			if(lightNodeIndex == null) {
+				return 0.0D;
+			}
+			
+			final LightBounds[] nodeLightBounds = this.nodeLightBounds;
+			
+			final int[] nodeOffsets = this.nodeOffsets;
+			final int[] nodeParents = this.nodeParents;
+			
+			double probabilityMassFunctionValue = 1.0D;
+			
+			for(int nodeIndex = lightNodeIndex.intValue(); nodeIndex > 0; nodeIndex = nodeParents[nodeIndex]) {
+				final int nodeIndexParent = nodeParents[nodeIndex];
+				final int nodeIndexL = nodeIndexParent + 1;
+				final int nodeIndexR = nodeOffsets[nodeIndexParent];
+				
+				final double importanceL = nodeLightBounds[nodeIndexL].computeImportance(referencePoint, surfaceNormal);
+				final double importanceR = nodeLightBounds[nodeIndexR].computeImportance(referencePoint, surfaceNormal);
+				final double importance = importanceL + importanceR;
+				
+				if(!(importance > 0.0D)) {
+					return 0.0D;
+				}
+				
+				probabilityMassFunctionValue *= (nodeIndex == nodeIndexL ? importanceL : importanceR) / importance;
+			}
+			
+			return probabilityMassFunctionValue;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public static BoundingVolumeHierarchyLightSampler create(final List<Primitive> lights) {
+			final List<Primitive> lightsCopy = Collections.unmodifiableList(new ArrayList<>(lights));
+			
+			final Builder builder = new Builder(lightsCopy);
+			
+			if(!lightsCopy.isEmpty()) {
+				builder.build(0, lightsCopy.size(), -1);
+			}
+			
+			final Map<Primitive, Integer> lightNodeIndices = new IdentityHashMap<>();
+			
+			for(int nodeIndex = 0; nodeIndex < builder.nodeCount; nodeIndex++) {
+				if(builder.nodeLeaves[nodeIndex]) {
+					lightNodeIndices.put(lightsCopy.get(builder.nodeOffsets[nodeIndex]), Integer.valueOf(nodeIndex));
+				}
+			}
+			
+			return new BoundingVolumeHierarchyLightSampler(builder.nodeLightBounds, lightsCopy, lightNodeIndices, builder.nodeLeaves, builder.nodeOffsets, builder.nodeParents);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class Builder {
+			private final LightBounds[] lightBounds;
+			private final LightBounds[] nodeLightBounds;
+			private final boolean[] nodeLeaves;
+			private final int[] indices;
+			private final int[] nodeOffsets;
+			private final int[] nodeParents;
+			private int nodeCount;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public Builder(final List<Primitive> lights) {
+				final int nodeCountMaximum = Ints.max(lights.size() * 2 - 1, 0);
+				
+				this.lightBounds = new LightBounds[lights.size()];
+				this.nodeLightBounds = new LightBounds[nodeCountMaximum];
+				this.nodeLeaves = new boolean[nodeCountMaximum];
+				this.indices = new int[lights.size()];
+				this.nodeOffsets = new int[nodeCountMaximum];
+				this.nodeParents = new int[nodeCountMaximum];
+				this.nodeCount = 0;
+				
+				for(int i = 0; i < lights.size(); i++) {
+					this.lightBounds[i] = LightBounds.create(lights.get(i));
+					this.indices[i] = i;
+				}
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public int build(final int start, final int end, final int nodeIndexParent) {
+				final int nodeIndex = this.nodeCount++;
+				
+				this.nodeParents[nodeIndex] = nodeIndexParent;
+				
+				if(end - start == 1) {
+					this.nodeLightBounds[nodeIndex] = this.lightBounds[this.indices[start]];
+					this.nodeLeaves[nodeIndex] = true;
+					this.nodeOffsets[nodeIndex] = this.indices[start];
+					
+					return nodeIndex;
+				}
+				
+				final int middle = doSplit(start, end);
+				
+				final int nodeIndexL = build(start, middle, nodeIndex);
+				final int nodeIndexR = build(middle, end, nodeIndex);
+				
+				this.nodeLightBounds[nodeIndex] = LightBounds.union(this.nodeLightBounds[nodeIndexL], this.nodeLightBounds[nodeIndexR]);
+				this.nodeLeaves[nodeIndex] = false;
+				this.nodeOffsets[nodeIndex] = nodeIndexR;
+				
+				return nodeIndex;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private int doSplit(final int start, final int end) {
+				final LightBounds[] lightBounds = this.lightBounds;
+				
+				final int[] indices = this.indices;
+				
+				LightBounds nodeLightBounds = lightBounds[indices[start]];
+				
+				double centroidMinimumX = nodeLightBounds.centerX;
+				double centroidMinimumY = nodeLightBounds.centerY;
+				double centroidMinimumZ = nodeLightBounds.centerZ;
+				double centroidMaximumX = nodeLightBounds.centerX;
+				double centroidMaximumY = nodeLightBounds.centerY;
+				double centroidMaximumZ = nodeLightBounds.centerZ;
+				
+				for(int i = start + 1; i < end; i++) {
+					final LightBounds currentLightBounds = lightBounds[indices[i]];
+					
+					nodeLightBounds = LightBounds.union(nodeLightBounds, currentLightBounds);
+					
+					centroidMinimumX = Doubles.min(centroidMinimumX, currentLightBounds.centerX);
+					centroidMinimumY = Doubles.min(centroidMinimumY, currentLightBounds.centerY);
+					centroidMinimumZ = Doubles.min(centroidMinimumZ, currentLightBounds.centerZ);
+					centroidMaximumX = Doubles.max(centroidMaximumX, currentLightBounds.centerX);
+					centroidMaximumY = Doubles.max(centroidMaximumY, currentLightBounds.centerY);
+					centroidMaximumZ = Doubles.max(centroidMaximumZ, currentLightBounds.centerZ);
+				}
+				
+				final double[] centroidMinimum = {centroidMinimumX, centroidMinimumY, centroidMinimumZ};
+				final double[] centroidMaximum = {centroidMaximumX, centroidMaximumY, centroidMaximumZ};
+				final double[] extent = {nodeLightBounds.maximumX - nodeLightBounds.minimumX, nodeLightBounds.maximumY - nodeLightBounds.minimumY, nodeLightBounds.maximumZ - nodeLightBounds.minimumZ};
+				
+				final double extentMaximum = Doubles.max(extent[0], extent[1], extent[2]);
+				
+				double costMinimum = Doubles.MAX_VALUE;
+				
+				int bucketMinimum = -1;
+				int dimensionMinimum = -1;
+				
+				for(int dimension = 0; dimension < 3; dimension++) {
+					if(centroidMaximum[dimension] - centroidMinimum[dimension] <= 0.0D) {
+						continue;
+					}
+					
+					final LightBounds[] buckets = new LightBounds[BUCKET_COUNT];
+					
+					for(int i = start; i < end; i++) {
+						final LightBounds currentLightBounds = lightBounds[indices[i]];
+						
+						final int bucket = doComputeBucket(currentLightBounds, dimension, centroidMinimum[dimension], centroidMaximum[dimension]);
+						
+						buckets[bucket] = buckets[bucket] == null ? currentLightBounds : LightBounds.union(buckets[bucket], currentLightBounds);
+					}
+					
+					final double scale = extent[dimension] > 0.0D ? extentMaximum / extent[dimension] : 1.0D;
+					
+					for(int bucket = 0; bucket < BUCKET_COUNT - 1; bucket++) {
+						LightBounds lightBoundsL = null;
+						LightBounds lightBoundsR = null;
+						
+						for(int i = 0; i <= bucket; i++) {
+							lightBoundsL = buckets[i] == null ? lightBoundsL : lightBoundsL == null ? buckets[i] : LightBounds.union(lightBoundsL, buckets[i]);
+						}
+						
+						for(int i = bucket + 1; i < BUCKET_COUNT; i++) {
+							lightBoundsR = buckets[i] == null ? lightBoundsR : lightBoundsR == null ? buckets[i] : LightBounds.union(lightBoundsR, buckets[i]);
+						}
+						
+						if(lightBoundsL == null || lightBoundsR == null) {
+							continue;
+						}
+						
+						final double cost = scale * (lightBoundsL.computeCost() + lightBoundsR.computeCost());
+						
+						if(cost < costMinimum) {
+							costMinimum = cost;
+							
+							bucketMinimum = bucket;
+							dimensionMinimum = dimension;
+						}
+					}
+				}
+				
+				if(dimensionMinimum == -1) {
+					return (start + end) / 2;
+				}
+				
+				int middle = start;
+				
+				for(int i = start; i < end; i++) {
+					if(doComputeBucket(lightBounds[indices[i]], dimensionMinimum, centroidMinimum[dimensionMinimum], centroidMaximum[dimensionMinimum]) <= bucketMinimum) {
+						final int index = indices[i];
+						
+						indices[i] = indices[middle];
+						indices[middle] = index;
+						
+						middle++;
+					}
+				}
+				
+				return middle == start || middle == end ? (start + end) / 2 : middle;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private static int doComputeBucket(final LightBounds lightBounds, final int dimension, final double centroidMinimum, final double centroidMaximum) {
+				final double centroid = dimension == 0 ? lightBounds.centerX : dimension == 1 ? lightBounds.centerY : lightBounds.centerZ;
+				
+				return Ints.min((int)(BUCKET_COUNT * ((centroid - centroidMinimum) / (centroidMaximum - centroidMinimum))), BUCKET_COUNT - 1);
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static final class LightBounds {
+			private static final int EMISSION_SAMPLE_RESOLUTION = 4;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private final Vector3D w;
+			private final boolean isTwoSided;
+			private final double centerX;
+			private final double centerY;
+			private final double centerZ;
+			private final double cosThetaE;
+			private final double cosThetaO;
+			private final double maximumX;
+			private final double maximumY;
+			private final double maximumZ;
+			private final double minimumX;
+			private final double minimumY;
+			private final double minimumZ;
+			private final double phi;
+			private final double radius;
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public LightBounds(final Vector3D w, final boolean isTwoSided, final double cosThetaE, final double cosThetaO, final double maximumX, final double maximumY, final double maximumZ, final double minimumX, final double minimumY, final double minimumZ, final double phi) {
+				this.w = w;
+				this.isTwoSided = isTwoSided;
+				this.centerX = (minimumX + maximumX) * 0.5D;
+				this.centerY = (minimumY + maximumY) * 0.5D;
+				this.centerZ = (minimumZ + maximumZ) * 0.5D;
+				this.cosThetaE = cosThetaE;
+				this.cosThetaO = cosThetaO;
+				this.maximumX = maximumX;
+				this.maximumY = maximumY;
+				this.maximumZ = maximumZ;
+				this.minimumX = minimumX;
+				this.minimumY = minimumY;
+				this.minimumZ = minimumZ;
+				this.phi = phi;
+				this.radius = Doubles.sqrt((maximumX - minimumX) * (maximumX - minimumX) + (maximumY - minimumY) * (maximumY - minimumY) + (maximumZ - minimumZ) * (maximumZ - minimumZ)) * 0.5D;
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public double computeCost() {
+				final double thetaO = Doubles.acos(Doubles.saturate(this.cosThetaO, -1.0D, 1.0D));
+				final double thetaE = Doubles.acos(Doubles.saturate(this.cosThetaE, -1.0D, 1.0D));
+				final double thetaW = Doubles.min(thetaO + thetaE, Doubles.PI);
+				final double sinThetaO = Doubles.sqrt(Doubles.max(1.0D - this.cosThetaO * this.cosThetaO, 0.0D));
+				final double mOmega = 2.0D * Doubles.PI * (1.0D - this.cosThetaO) + Doubles.PI / 2.0D * (2.0D * thetaW * sinThetaO - Doubles.cos(thetaO - 2.0D * thetaW) - 2.0D * thetaO * sinThetaO + this.cosThetaO);
+				
+				final double extentX = this.maximumX - this.minimumX;
+				final double extentY = this.maximumY - this.minimumY;
+				final double extentZ = this.maximumZ - this.minimumZ;
+				
+				final double surfaceArea = 2.0D * (extentX * extentY + extentY * extentZ + extentZ * extentX);
+				
+				return this.phi * mOmega * surfaceArea;
+			}
+			
+			public double computeImportance(final Point3D referencePoint, final Vector3D surfaceNormal) {
+				final double deltaX = referencePoint.x - this.centerX;
+				final double deltaY = referencePoint.y - this.centerY;
+				final double deltaZ = referencePoint.z - this.centerZ;
+				
+				final double distanceSquared = deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+				final double distanceSquaredClamped = Doubles.max(distanceSquared, this.radius);
+				
+				if(distanceSquared <= this.radius * this.radius) {
+					return this.phi / distanceSquaredClamped;
+				}
+				
+				final double distance = Doubles.sqrt(distanceSquared);
+				
+				final Vector3D wI = new Vector3D(deltaX / distance, deltaY / distance, deltaZ / distance);
+				
+				final double cosThetaW = this.isTwoSided ? Doubles.abs(Vector3D.dotProduct(this.w, wI)) : Vector3D.dotProduct(this.w, wI);
+				final double sinThetaW = Doubles.sqrt(Doubles.max(1.0D - cosThetaW * cosThetaW, 0.0D));
+				final double sinThetaB = this.radius / distance;
+				final double cosThetaB = Doubles.sqrt(Doubles.max(1.0D - sinThetaB * sinThetaB, 0.0D));
+				final double sinThetaO = Doubles.sqrt(Doubles.max(1.0D - this.cosThetaO * this.cosThetaO, 0.0D));
+				final double cosThetaX = doCosSubtractClamped(sinThetaW, cosThetaW, sinThetaO, this.cosThetaO);
+				final double sinThetaX = doSinSubtractClamped(sinThetaW, cosThetaW, sinThetaO, this.cosThetaO);
+				final double cosThetaP = doCosSubtractClamped(sinThetaX, cosThetaX, sinThetaB, cosThetaB);
+				
+				if(cosThetaP <= this.cosThetaE) {
+					return 0.0D;
+				}
+				
+				final double cosThetaI = Doubles.abs(Vector3D.dotProduct(wI, surfaceNormal));
+				final double sinThetaI = Doubles.sqrt(Doubles.max(1.0D - cosThetaI * cosThetaI, 0.0D));
+				final double cosThetaPI = doCosSubtractClamped(sinThetaI, cosThetaI, sinThetaB, cosThetaB);
+				
+				return Doubles.max(this.phi * cosThetaP * cosThetaPI / distanceSquaredClamped, 0.0D);
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			public static LightBounds create(final Primitive light) {
+				final BoundingVolume3D boundingVolume = light.getBoundingVolume();
+				
+				final Point3D maximum = boundingVolume.max();
+				final Point3D minimum = boundingVolume.min();
+				
+				final Optional<Vector3D> optionalSurfaceNormal = light.getSurfaceNormal();
+				
+				final boolean isTwoSided = optionalSurfaceNormal.isPresent();
+				
+				final double radiance = doComputeRadiance(light, minimum, maximum);
+				final double phi = (radiance > 0.0D ? radiance : 1.0D) * light.getSurfaceArea() * Doubles.PI * (isTwoSided ? 2.0D : 1.0D);
+				
+				return new LightBounds(optionalSurfaceNormal.orElse(Vector3D.z()), isTwoSided, 0.0D, isTwoSided ? 1.0D : -1.0D, maximum.x, maximum.y, maximum.z, minimum.x, minimum.y, minimum.z, phi);
+			}
+			
+			public static LightBounds union(final LightBounds a, final LightBounds b) {
+				final double thetaA = Doubles.acos(Doubles.saturate(a.cosThetaO, -1.0D, 1.0D));
+				final double thetaB = Doubles.acos(Doubles.saturate(b.cosThetaO, -1.0D, 1.0D));
+				final double thetaD = Doubles.acos(Doubles.saturate(Vector3D.dotProduct(a.w, b.w), -1.0D, 1.0D));
+				
+				final double maximumX = Doubles.max(a.maximumX, b.maximumX);
+				final double maximumY = Doubles.max(a.maximumY, b.maximumY);
+				final double maximumZ = Doubles.max(a.maximumZ, b.maximumZ);
+				final double minimumX = Doubles.min(a.minimumX, b.minimumX);
+				final double minimumY = Doubles.min(a.minimumY, b.minimumY);
+				final double minimumZ = Doubles.min(a.minimumZ, b.minimumZ);
+				
+				final boolean isTwoSided = a.isTwoSided || b.isTwoSided;
+				
+				final double cosThetaE = Doubles.min(a.cosThetaE, b.cosThetaE);
+				final double phi = a.phi + b.phi;
+				
+				if(Doubles.min(thetaD + thetaB, Doubles.PI) <= thetaA) {
+					return new LightBounds(a.w, isTwoSided, cosThetaE, a.cosThetaO, maximumX, maximumY, maximumZ, minimumX, minimumY, minimumZ, phi);
+				}
+				
+				if(Doubles.min(thetaD + thetaA, Doubles.PI) <= thetaB) {
+					return new LightBounds(b.w, isTwoSided, cosThetaE, b.cosThetaO, maximumX, maximumY, maximumZ, minimumX, minimumY, minimumZ, phi);
+				}
+				
+				final double thetaO = (thetaA + thetaD + thetaB) * 0.5D;
+				
+				final Vector3D wR = Vector3D.crossProduct(a.w, b.w);
+				
+				if(thetaO >= Doubles.PI || Doubles.isZero(wR.lengthSquared())) {
+					return new LightBounds(a.w, isTwoSided, cosThetaE, -1.0D, maximumX, maximumY, maximumZ, minimumX, minimumY, minimumZ, phi);
+				}
+				
+				final double thetaR = thetaO - thetaA;
+				
+				final Vector3D w = Vector3D.normalize(Vector3D.add(Vector3D.multiply(a.w, Doubles.cos(thetaR)), Vector3D.multiply(Vector3D.crossProduct(Vector3D.normalize(wR), a.w), Doubles.sin(thetaR))));
+				
+				return new LightBounds(w, isTwoSided, cosThetaE, Doubles.cos(thetaO), maximumX, maximumY, maximumZ, minimumX, minimumY, minimumZ, phi);
+			}
+			
+			////////////////////////////////////////////////////////////////////////////////////////////////////
+			
+			private static double doComputeRadiance(final Primitive light, final Point3D minimum, final Point3D maximum) {
+				final Vector3D diagonal = Vector3D.direction(minimum, maximum);
+				
+				final Point3D center = Point3D.add(minimum, diagonal, 0.5D);
+				final Point3D referencePoint = Point3D.add(center, light.getSurfaceNormal().orElse(Vector3D.z()), diagonal.length() + 1.0D);
+				
+				double radiance = 0.0D;
+				
+				int count = 0;
+				
+				for(int y = 0; y < EMISSION_SAMPLE_RESOLUTION; y++) {
+					for(int x = 0; x < EMISSION_SAMPLE_RESOLUTION; x++) {
+						final Point2D sample = new Point2D((x + 0.5D) / EMISSION_SAMPLE_RESOLUTION, (y + 0.5D) / EMISSION_SAMPLE_RESOLUTION);
+						
+						final Optional<Shape.SurfaceSample> optionalSurfaceSample = light.sample(referencePoint, sample);
+						
+						if(!optionalSurfaceSample.isPresent()) {
+							continue;
+						}
+						
+						final Vector3D direction = Vector3D.direction(referencePoint, optionalSurfaceSample.get().getPoint());
+						
+						final Optional<Intersection> optionalIntersection = light.createIntersection(new Ray3D(referencePoint, Vector3D.normalize(direction)), direction.length(), 0.0D, Doubles.MAX_VALUE, new Shape.Hit());
+						
+						if(optionalIntersection.isPresent()) {
+							radiance += light.getMaterial().computeEmission(optionalIntersection.get()).average();
+							
+							count++;
+						}
+					}
+				}
+				
+				return count > 0 ? radiance / count : 0.0D;
+			}
+			
+			private static double doCosSubtractClamped(final double sinThetaA, final double cosThetaA, final double sinThetaB, final double cosThetaB) {
+				return cosThetaA > cosThetaB ? 1.0D : cosThetaA * cosThetaB + sinThetaA * sinThetaB;
+			}
+			
+			private static double doSinSubtractClamped(final double sinThetaA, final double cosThetaA, final double sinThetaB, final double cosThetaB) {
+				return cosThetaA > cosThetaB ? 0.0D : sinThetaA * cosThetaB - cosThetaA * sinThetaB;
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class UniformLightSampler extends LightSampler {
+		private final List<Primitive> lights;
+		private final Map<Primitive, Integer> lightIndices;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public UniformLightSampler(final List<Primitive> lights) {
+			this.lights = Collections.unmodifiableList(new ArrayList<>(lights));
+			this.lightIndices = new IdentityHashMap<>();
+			
+			for(int i = 0; i < this.lights.size(); i++) {
+				this.lightIndices.put(Objects.requireNonNull(this.lights.get(i), "lights.get(" + i + ") == null"), Integer.valueOf(i));
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public List<Primitive> getLights() {
+			return this.lights;
+		}
+		
+		@Override
+		public Optional<Result> sample(final Point3D referencePoint, final Vector3D surfaceNormal, final double sample) {
+			final int lightCount = this.lights.size();
+			
+			if(lightCount == 0) {
+				return Optional.empty();
+			}
+			
+			return Optional.of(new Result(this.lights.get(Ints.min((int)(sample * lightCount), lightCount - 1)), 1.0D / lightCount));
+		}
+		
+		@Override
+		public double evaluatePMF(final Point3D referencePoint, final Vector3D surfaceNormal, final Primitive light) {
+			return this.lightIndices.containsKey(light) ? 1.0D / this.lights.size() : 0.0D;
+		}
+	}
+}
\ No newline at end of file
@@ -39,7 +39,6 @@ import org.macroing.geo4j.onb.OrthonormalBasis33D;
 import org.macroing.geo4j.ray.Ray3D;
 import org.macroing.java.lang.Doubles;
 import org.macroing.java.lang.Ints;
-import org.macroing.java.util.Randoms;
 
 public abstract class Material {
 	protected Material() {
@@ -48,7 +47,21 @@ public abstract class Material {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	public abstract Optional<Result> compute(final Intersection intersection);
+	public Color3D computeEmission(final Intersection intersection) {
+		return Color3D.BLACK;
+	}
+	
+	public abstract Optional<Result> compute(final Intersection intersection, final Sampler sampler);
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public final Optional<Result> compute(final Intersection intersection) {
+		return compute(intersection, Sampler.threadLocalRandom());
+	}
+	
+	public boolean isEmissive() {
+		return false;
+	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -691,20 +704,36 @@ public abstract class Material {
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	public static final class Result {
+		private final BSDF bSDF;
 		private final Color3D emission;
 		private final Color3D reflectance;
+		private final Intersection intersection;
 		private final Ray3D ray;
+		private final boolean isSpecular;
+		private final double probabilityDensityFunctionValue;
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		public Result(final Color3D emission, final Color3D reflectance, final Ray3D ray) {
+			this(emission, reflectance, ray, null, null, true, 0.0D);
+		}
+		
+		private Result(final Color3D emission, final Color3D reflectance, final Ray3D ray, final BSDF bSDF, final Intersection intersection, final boolean isSpecular, final double probabilityDensityFunctionValue) {
+			this.bSDF = bSDF;
 			this.emission = Objects.requireNonNull(emission, "emission == null");
 			this.reflectance = Objects.requireNonNull(reflectance, "reflectance == null");
+			this.intersection = intersection;
 			this.ray = Objects.requireNonNull(ray, "ray == null");
+			this.isSpecular = isSpecular;
+			this.probabilityDensityFunctionValue = probabilityDensityFunctionValue;
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
+		public Color3D evaluateReflectance(final Vector3D iWS) {
+			return this.bSDF != null ? this.bSDF.evaluateReflectance(this.intersection, iWS) : Color3D.BLACK;
+		}
+		
 		public Color3D getEmission() {
 			return this.emission;
 		}
@@ -716,6 +745,22 @@ public abstract class Material {
 		public Ray3D getRay() {
 			return this.ray;
 		}
+		
+		public boolean hasNonSpecularBXDF() {
+			return this.bSDF != null && this.bSDF.hasNonSpecularBXDF();
+		}
+		
+		public boolean isSpecular() {
+			return this.isSpecular;
+		}
+		
+		public double evaluatePDF(final Vector3D iWS) {
+			return this.bSDF != null ? this.bSDF.evaluatePDF(this.intersection, iWS) : 0.0D;
+		}
+		
+		public double getProbabilityDensityFunctionValue() {
+			return this.probabilityDensityFunctionValue;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -820,7 +865,7 @@ public abstract class Material {
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
-		public Optional<Result> compute(final Intersection intersection, final Color3D emission) {
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler, final Color3D emission) {
 			final OrthonormalBasis33D orthonormalBasis = intersection.getOrthonormalBasisWS();
 			
 			final Vector3D nWS = intersection.getSurfaceNormalWS();
@@ -828,18 +873,20 @@ public abstract class Material {
 			final Vector3D oLS = orthonormalBasis.transformReverseNormalize(oWS);
 			
 			if(Doubles.isZero(oLS.z)) {
-				return Optional.empty();
+				return Optional.of(doCreateResultAbsorbed(intersection, emission));
 			}
 			
-			final double sampleU = Randoms.nextDouble();
-			final double sampleV = Randoms.nextDouble();
+			final Point2D sample = sampler.sample2D();
+			
+			final double sampleU = sample.x;
+			final double sampleV = sample.y;
 			
 			final BXDF[] bXDFs = new BXDF[8];
 			
 			final int matches = doComputeMatches(BXDFType.ALL, bXDFs);
 			
 			if(matches == 0) {
-				return Optional.empty();
+				return Optional.of(doCreateResultAbsorbed(intersection, emission));
 			}
 			
 			final int match = Ints.min((int)(Doubles.floor(sampleU * matches)), matches - 1);
@@ -854,7 +901,7 @@ public abstract class Material {
 			final Optional<BXDFResult> optionalBXDFResult = bXDF.sampleDF(oLS, p);
 			
 			if(optionalBXDFResult.isEmpty()) {
-				return Optional.empty();
+				return Optional.of(doCreateResultAbsorbed(intersection, emission));
 			}
 			
 			final BXDFResult bXDFResult = optionalBXDFResult.get();
@@ -865,13 +912,13 @@ public abstract class Material {
 			Color3D result = bXDFResult.getResult();
 			
 			if(result.isBlack()) {
-				return Optional.empty();
+				return Optional.of(doCreateResultAbsorbed(intersection, emission));
 			}
 			
 			double probabilityDensityFunctionValue = bXDFResult.getPDF();
 			
 			if(Doubles.isZero(probabilityDensityFunctionValue)) {
-				return Optional.empty();
+				return Optional.of(doCreateResultAbsorbed(intersection, emission));
 			}
 			
 			final Ray3D ray = new Ray3D(intersection.getSurfaceIntersectionPointWS(), iWS);
@@ -901,11 +948,77 @@ public abstract class Material {
 			
 			final Color3D reflectance = Color3D.divide(Color3D.multiply(result, Vector3D.dotProductAbs(iWS, nWS)), probabilityDensityFunctionValue);
 			
-			return Optional.of(new Result(emission, reflectance, ray));
+			return Optional.of(new Result(emission, reflectance, ray, this, intersection, bXDFResult.getBXDFType().isSpecular(), probabilityDensityFunctionValue));
+		}
+		
+		public Color3D evaluateReflectance(final Intersection intersection, final Vector3D iWS) {
+			final OrthonormalBasis33D orthonormalBasis = intersection.getOrthonormalBasisWS();
+			
+			final Vector3D nWS = intersection.getSurfaceNormalWS();
+			final Vector3D oWS = Vector3D.negate(intersection.getRayWS().getDirection());
+			final Vector3D oLS = orthonormalBasis.transformReverseNormalize(oWS);
+			final Vector3D iLS = orthonormalBasis.transformReverseNormalize(iWS);
+			
+			if(Doubles.isZero(oLS.z)) {
+				return Color3D.BLACK;
+			}
+			
+			final double iDotN = Vector3D.dotProduct(iWS, nWS);
+			final double oDotN = Vector3D.dotProduct(oWS, nWS);
+			
+			final boolean isReflecting = iDotN * oDotN > 0.0D;
+			
+			Color3D result = Color3D.BLACK;
+			
+			for(final BXDF bXDF : this.bXDFs) {
+				final BXDFType bXDFType = bXDF.getBXDFType();
+				
+				if(!bXDFType.isSpecular() && (isReflecting && bXDFType.hasReflection() || !isReflecting && bXDFType.hasTransmission())) {
+					result = Color3D.add(result, bXDF.evaluateDF(oLS, iLS));
+				}
+			}
+			
+			return Color3D.multiply(result, Doubles.abs(iDotN));
+		}
+		
+		public boolean hasNonSpecularBXDF() {
+			for(final BXDF bXDF : this.bXDFs) {
+				if(!bXDF.getBXDFType().isSpecular()) {
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		public double evaluatePDF(final Intersection intersection, final Vector3D iWS) {
+			final OrthonormalBasis33D orthonormalBasis = intersection.getOrthonormalBasisWS();
+			
+			final Vector3D oWS = Vector3D.negate(intersection.getRayWS().getDirection());
+			final Vector3D oLS = orthonormalBasis.transformReverseNormalize(oWS);
+			final Vector3D iLS = orthonormalBasis.transformReverseNormalize(iWS);
+			
+			if(Doubles.isZero(oLS.z) || this.bXDFs.isEmpty()) {
+				return 0.0D;
+			}
+			
+			double probabilityDensityFunctionValue = 0.0D;
+			
+			for(final BXDF bXDF : this.bXDFs) {
+				if(!bXDF.getBXDFType().isSpecular()) {
+					probabilityDensityFunctionValue += bXDF.evaluatePDF(oLS, iLS);
+				}
+			}
+			
+			return probabilityDensityFunctionValue / this.bXDFs.size();
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
+		private Result doCreateResultAbsorbed(final Intersection intersection, final Color3D emission) {
+			return new Result(emission, Color3D.BLACK, new Ray3D(intersection.getSurfaceIntersectionPointWS(), intersection.getSurfaceNormalWS()), this, intersection, false, 0.0D);
+		}
+		
 		private int doComputeMatches(final BXDFType bXDFType, final BXDF[] matchingBXDFs) {
 			int matches = 0;
 			
@@ -1259,12 +1372,28 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return doSelectMaterial(intersection).computeEmission(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
+			return doSelectMaterial(intersection).compute(intersection, sampler);
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.materialA.isEmissive() || this.materialB.isEmissive();
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private Material doSelectMaterial(final Intersection intersection) {
 			final Vector3D direction = Vector3D.direction(this.origin, intersection.getSurfaceIntersectionPointOS());
 			
 			final boolean isTextureA = (direction.length() * this.scale) % 1.0D > 0.5D;
 			
-			return isTextureA ? this.materialA.compute(intersection) : this.materialB.compute(intersection);
+			return isTextureA ? this.materialA : this.materialB;
 		}
 	}
 	
@@ -1296,7 +1425,23 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return doSelectMaterial(intersection).computeEmission(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
+			return doSelectMaterial(intersection).compute(intersection, sampler);
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.materialA.isEmissive() || this.materialB.isEmissive();
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private Material doSelectMaterial(final Intersection intersection) {
 			final double u = intersection.getTextureCoordinates().x;
 			final double v = intersection.getTextureCoordinates().y;
 			
@@ -1304,7 +1449,7 @@ public abstract class Material {
 			final boolean isV = Doubles.fractionalPart((v * this.angleRadiansCos + u * this.angleRadiansSin) * this.scaleV) > 0.5D;
 			final boolean isMaterialA = isU ^ isV;
 			
-			return isMaterialA ? this.materialA.compute(intersection) : this.materialB.compute(intersection);
+			return isMaterialA ? this.materialA : this.materialB;
 		}
 	}
 	
@@ -1326,7 +1471,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final Color3D colorKD = this.textureKD.compute(intersection);
 			final Color3D colorKS = this.textureKS.compute(intersection);
 			
@@ -1360,16 +1510,21 @@ public abstract class Material {
 				final double probabilityRussianRouletteReflection = reflectance / probabilityRussianRoulette;
 				final double probabilityRussianRouletteTransmission = transmittance / (1.0D - probabilityRussianRoulette);
 				
-				final boolean isChoosingSpecularReflection = Randoms.nextDouble() < probabilityRussianRoulette;
+				final boolean isChoosingSpecularReflection = sampler.sample1D() < probabilityRussianRoulette;
 				
 				if(isChoosingSpecularReflection) {
-					return new BSDF(new SpecularBRDF(Color3D.multiply(colorKS, probabilityRussianRouletteReflection), new ConstantFresnel())).compute(intersection, this.textureEmission.compute(intersection));
+					return new BSDF(new SpecularBRDF(Color3D.multiply(colorKS, probabilityRussianRouletteReflection), new ConstantFresnel())).compute(intersection, sampler, this.textureEmission.compute(intersection));
 				}
 				
-				return new BSDF(new LambertianBRDF(Color3D.multiply(colorKD, probabilityRussianRouletteTransmission))).compute(intersection, this.textureEmission.compute(intersection));
+				return new BSDF(new LambertianBRDF(Color3D.multiply(colorKD, probabilityRussianRouletteTransmission))).compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
-			return new BSDF(new SpecularBRDF(colorKS, new ConstantFresnel())).compute(intersection, this.textureEmission.compute(intersection));
+			return new BSDF(new SpecularBRDF(colorKS, new ConstantFresnel())).compute(intersection, sampler, this.textureEmission.compute(intersection));
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
 		}
 	}
 	
@@ -1730,7 +1885,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final List<BXDF> bXDFs = new ArrayList<>();
 			
 			final double anisotropic = this.textureAnisotropic.compute(intersection).average();
@@ -1817,7 +1977,12 @@ public abstract class Material {
 			
 			final BSDF bSDF = new BSDF(bXDFs);
 			
-			return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+			return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
 		}
 	}
 	
@@ -2365,15 +2530,25 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			if(this.fourierBXDFTable.nChannels > 0) {
 				final BSDF bSDF = new BSDF(new FourierBXDF(this.fourierBXDFTable));
 				
-				return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+				return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
 			return Optional.empty();
 		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -2676,7 +2851,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final Vector3D direction = intersection.getRayWS().getDirection();
 			
 			final Vector3D surfaceNormal = intersection.getSurfaceNormalWS();
@@ -2717,7 +2897,7 @@ public abstract class Material {
 				final double probabilityRussianRouletteReflection = reflectance / probabilityRussianRoulette;
 				final double probabilityRussianRouletteTransmission = transmittance / (1.0D - probabilityRussianRoulette);
 				
-				final boolean isChoosingSpecularReflection = Randoms.nextDouble() < probabilityRussianRoulette;
+				final boolean isChoosingSpecularReflection = sampler.sample1D() < probabilityRussianRoulette;
 				
 				if(isChoosingSpecularReflection) {
 					return Optional.of(new Result(Color3D.BLACK, new Color3D(probabilityRussianRouletteReflection), reflectionRay));
@@ -2744,7 +2924,7 @@ public abstract class Material {
 			final boolean isSpecular = Doubles.isZero(roughnessU) && Doubles.isZero(roughnessV);
 			
 			if(isSpecular && isAllowingMultipleLobes) {
-				return new BSDF(new FresnelSpecularBXDF(colorKR, colorKT, 1.0D, eta)).compute(intersection, this.textureEmission.compute(intersection));
+				return new BSDF(new FresnelSpecularBXDF(colorKR, colorKT, 1.0D, eta)).compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
 			if(isSpecular) {
@@ -2760,7 +2940,7 @@ public abstract class Material {
 					bXDFs.add(new SpecularBTDF(colorKT, 1.0D, eta));
 				}
 				
-				return new BSDF(bXDFs).compute(intersection, this.textureEmission.compute(intersection));
+				return new BSDF(bXDFs).compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
 			final List<BXDF> bXDFs = new ArrayList<>();
@@ -2780,9 +2960,14 @@ public abstract class Material {
 				bXDFs.add(new TorranceSparrowBTDF(colorKT, microfacetDistribution, 1.0D, eta));
 			}
 			
-			return new BSDF(bXDFs).compute(intersection, this.textureEmission.compute(intersection));
+			return new BSDF(bXDFs).compute(intersection, sampler, this.textureEmission.compute(intersection));
 			*/
 		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -2803,14 +2988,24 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final Color3D colorKR = this.textureKR.compute(intersection);
 			
 			final double roughness = this.textureRoughness.compute(intersection).average();
 			
 			final BSDF bSDF = new BSDF(new AshikhminShirleyBRDF(colorKR, roughness));
 			
-			return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+			return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
 		}
 	}
 	
@@ -3320,7 +3515,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 //			final Vector3D s = Vector3D.sampleHemisphereCosineDistribution();
 //			final Vector3D w = Vector3D.orientNormalNegated(intersection.getRayWS().getDirection(), intersection.getSurfaceNormalWS());
 //			final Vector3D u = Vector3D.normalize(Vector3D.crossProduct(Doubles.abs(w.x) > 0.1D ? Vector3D.y() : Vector3D.x(), w));
@@ -3345,7 +3545,12 @@ public abstract class Material {
 			
 			final BSDF bSDF = new BSDF(bXDF);
 			
-			return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+			return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
 		}
 	}
 	
@@ -3373,7 +3578,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final Color3D colorEta = this.textureEta.compute(intersection);
 			final Color3D colorK = this.textureK.compute(intersection);
 			
@@ -3389,7 +3599,12 @@ public abstract class Material {
 			
 			final BSDF bSDF = new BSDF(new TorranceSparrowBRDF(Color3D.WHITE, fresnel, microfacetDistribution));
 			
-			return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+			return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
 		}
 	}
 	
@@ -3460,7 +3675,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 //			final Color3D colorEmission = this.textureEmission.compute(intersection);
 //			final Color3D colorKR = this.textureKR.compute(intersection);
 			
@@ -3471,11 +3691,16 @@ public abstract class Material {
 			if(!colorKR.isBlack()) {
 				final BSDF bSDF = new BSDF(new SpecularBRDF(colorKR, new ConstantFresnel()));
 				
-				return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+				return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
 			return Optional.empty();
 		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -3556,8 +3781,13 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
-			final Vector3D s = Vector3D.sampleHemispherePowerCosineDistribution();
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
+			final Vector3D s = Vector3D.sampleHemispherePowerCosineDistribution(sampler.sample2D());
 			final Vector3D w = Vector3D.normalize(Vector3D.reflection(intersection.getRayWS().getDirection(), intersection.getSurfaceNormalWS(), true));
 			final Vector3D u = Vector3D.orthogonal(w);
 			final Vector3D v = Vector3D.normalize(Vector3D.crossProduct(w, u));
@@ -3567,6 +3797,11 @@ public abstract class Material {
 			
 			return Optional.of(new Result(colorEmission, colorKR, new Ray3D(intersection.getSurfaceIntersectionPointWS(), Vector3D.directionNormalized(u, v, w, s))));
 		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -3591,7 +3826,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final Color3D colorKD = Color3D.saturate(this.textureKD.compute(intersection), 0.0D, Doubles.MAX_VALUE);
 			final Color3D colorKS = Color3D.saturate(this.textureKS.compute(intersection), 0.0D, Doubles.MAX_VALUE);
 			
@@ -3614,11 +3854,16 @@ public abstract class Material {
 				
 				final BSDF bSDF = new BSDF(bXDFs);
 				
-				return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+				return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
 			return Optional.empty();
 		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -3750,7 +3995,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final Color3D colorKD = Color3D.saturate(this.textureKD.compute(intersection), 0.0D, Doubles.MAX_VALUE);
 			final Color3D colorKS = Color3D.saturate(this.textureKS.compute(intersection), 0.0D, Doubles.MAX_VALUE);
 			
@@ -3762,11 +4012,16 @@ public abstract class Material {
 				
 				final BSDF bSDF = new BSDF(new FresnelBlendBRDF(colorKD, colorKS, microfacetDistribution));
 				
-				return bSDF.compute(intersection, this.textureEmission.compute(intersection));
+				return bSDF.compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
 			return Optional.empty();
 		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -4005,7 +4260,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final List<BXDF> bXDFs = new ArrayList<>();
 			
 			final Color3D colorReflectance = Color3D.saturate(this.textureReflectance.compute(intersection), 0.0D, Doubles.MAX_VALUE);
@@ -4043,11 +4303,16 @@ public abstract class Material {
 			}
 			
 			if(bXDFs.size() > 0) {
-				return new BSDF(bXDFs).compute(intersection, this.textureEmission.compute(intersection));
+				return new BSDF(bXDFs).compute(intersection, sampler, this.textureEmission.compute(intersection));
 			}
 			
 			return Optional.empty();
 		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -4174,7 +4439,12 @@ public abstract class Material {
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
 		@Override
-		public Optional<Result> compute(final Intersection intersection) {
+		public Color3D computeEmission(final Intersection intersection) {
+			return this.textureEmission.compute(intersection);
+		}
+		
+		@Override
+		public Optional<Result> compute(final Intersection intersection, final Sampler sampler) {
 			final Color3D colorOpacity = Color3D.saturate(this.textureOpacity.compute(intersection), 0.0D, Doubles.MAX_VALUE);
 			final Color3D colorKD = Color3D.multiply(colorOpacity, Color3D.saturate(this.textureKD.compute(intersection), 0.0D, Doubles.MAX_VALUE));
 			final Color3D colorKR = Color3D.multiply(colorOpacity, Color3D.saturate(this.textureKR.compute(intersection), 0.0D, Doubles.MAX_VALUE));
@@ -4209,7 +4479,12 @@ public abstract class Material {
 				bXDFs.add(new SpecularBTDF(colorKT, 1.0D, eta));
 			}
 			
-			return new BSDF(bXDFs).compute(intersection, this.textureEmission.compute(intersection));
+			return new BSDF(bXDFs).compute(intersection, sampler, this.textureEmission.compute(intersection));
+		}
+		
+		@Override
+		public boolean isEmissive() {
+			return this.textureEmission != Texture.BLACK;
 		}
 	}
 }
\ No newline at end of file
@@ -18,6 +18,8 @@
  */
 package org.dayflower.pt;
 
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.matrix.Matrix44D;
 import org.macroing.java.lang.Doubles;
 
 public final class Math {
@@ -108,6 +110,14 @@ public final class Math {
 		}
 	}
 	
+	public static double transformLength(final Matrix44D m, final Vector3D v) {
+		final double x = m.element11 * v.x + m.element12 * v.y + m.element13 * v.z;
+		final double y = m.element21 * v.x + m.element22 * v.y + m.element23 * v.z;
+		final double z = m.element31 * v.x + m.element32 * v.y + m.element33 * v.z;
+		
+		return Doubles.sqrt(x * x + y * y + z * z);
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	private static double doSolveCubicForQuartic(final double p, final double q, final double r) {
@@ -18,97 +18,749 @@
  */
 package org.dayflower.pt;
 
-import java.util.concurrent.CountDownLatch;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
-import org.macroing.art4j.color.Color3D;
-import org.macroing.art4j.color.Color4D;
 import org.macroing.art4j.image.Image;
-import org.macroing.art4j.pixel.Color4DPixelOperator;
 import org.macroing.java.lang.Doubles;
 import org.macroing.java.lang.Ints;
 
+import com.sun.management.ThreadMXBean;
+
 public final class PathTracer {
-	private static final int RESOLUTION_X = 1024;
-	private static final int RESOLUTION_Y = 768;
-	private static final int SAMPLE_RESOLUTION_X = 2;
-	private static final int SAMPLE_RESOLUTION_Y = 2;
-	private static final int SAMPLES = 10;
+	private static final long CHECKPOINT_INTERVAL_MILLIS = 60000L;
+	private static final int CHECKPOINT_MAGIC = 0x44465054;
+	private static final int CHECKPOINT_SAMPLER_NAME_LENGTH_MAXIMUM = 256;
+	private static final int CHECKPOINT_VERSION = 2;
+	private static final int TILE_SIZE = 32;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private final Image image;
+	private final AtomicLong allocatedBytes;
+	private final ExecutorService executorService;
+	private final Film film;
+	private final ForkJoinPool forkJoinPool;
+	private final Integrator integrator;
+	private final List<Tile> tiles;
 	private final Scene scene;
+	private final boolean[] isSampling;
+	private final int resolutionX;
+	private final int resolutionY;
+	private Supplier<Sampler> samplerSupplier;
+	private double sampleErrorThreshold;
+	private int samplesMaximum;
+	private int samplesMinimum;
+	private volatile Future<?> checkpointFuture;
+	private volatile Path checkpointPath;
+	private volatile int passCount;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private PathTracer() {
-		this.image = new Image(RESOLUTION_X, RESOLUTION_Y, Color4D.WHITE);
-		this.scene = Scene.createSceneSmallPT(new Camera(RESOLUTION_X, RESOLUTION_Y));
+	public PathTracer(final Scene scene, final Integrator integrator, final int resolutionX, final int resolutionY, final int threadCount) {
+		this.allocatedBytes = new AtomicLong();
+		this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+			final
+			Thread thread = new Thread(runnable, "Checkpoint");
+			thread.setDaemon(true);
+			
+			return thread;
+		});
+		this.film = new Film(resolutionX, resolutionY);
+		this.forkJoinPool = new ForkJoinPool(Ints.requireRange(threadCount, 1, Short.MAX_VALUE, "threadCount"));
+		this.integrator = Objects.requireNonNull(integrator, "integrator == null");
+		this.tiles = Tile.createTiles(resolutionX, resolutionY, TILE_SIZE);
+		this.scene = Objects.requireNonNull(scene, "scene == null");
+		this.isSampling = new boolean[resolutionX * resolutionY];
+		this.resolutionX = resolutionX;
+		this.resolutionY = resolutionY;
+		this.samplerSupplier = Sampler::sobol;
+		this.sampleErrorThreshold = 0.6D;
+		this.samplesMaximum = 64;
+		this.samplesMinimum = 8;
+		this.checkpointFuture = null;
+		this.checkpointPath = null;
+		this.passCount = 0;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	public Film getFilm() {
+		return this.film;
+	}
+	
+	public Path getCheckpointPath() {
+		return this.checkpointPath;
+	}
+	
+	public boolean resume(final Path checkpointPath) {
+		Objects.requireNonNull(checkpointPath, "checkpointPath == null");
+		
+		if(!Files.isRegularFile(checkpointPath)) {
+			return false;
+		}
+		
+		try(final FileChannel fileChannel = FileChannel.open(checkpointPath, StandardOpenOption.READ)) {
+			final ByteBuffer byteBuffer = doRead(fileChannel, 20);
+			
+			if(byteBuffer.getInt() != CHECKPOINT_MAGIC || byteBuffer.getInt() != CHECKPOINT_VERSION) {
+				throw new IllegalArgumentException("The file " + checkpointPath + " is not a supported checkpoint.");
+			}
+			
+			final int passCount = byteBuffer.getInt();
+			final int samplerSeed = byteBuffer.getInt();
+			final int samplerNameLength = byteBuffer.getInt();
+			
+			if(samplerNameLength < 0 || samplerNameLength > CHECKPOINT_SAMPLER_NAME_LENGTH_MAXIMUM) {
+				throw new IllegalArgumentException("The file " + checkpointPath + " is not a supported checkpoint.");
+			}
+			
+			final String samplerName = StandardCharsets.UTF_8.decode(doRead(fileChannel, samplerNameLength)).toString();
+			
+			final Sampler sampler = this.samplerSupplier.get();
+			
+			if(!samplerName.equals(sampler.getName()) || samplerSeed != sampler.getSeed()) {
+				throw new IllegalArgumentException("The file " + checkpointPath + " was rendered with sampler " + samplerName + " and seed " + samplerSeed + " but sampler " + sampler.getName() + " and seed " + sampler.getSeed() + " are in use.");
+			}
+			
+			this.film.read(fileChannel);
+			
+			this.passCount = passCount;
+			
+			return true;
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public int getPassCount() {
+		return this.passCount;
+	}
+	
+	public long renderPass() {
+		return doRenderPass(this.samplesMaximum, Long.MAX_VALUE);
+	}
+	
 	public void render() {
-		final long currentTimeMillisA = System.currentTimeMillis();
+		doRender(this.samplesMaximum, Long.MAX_VALUE);
+	}
+	
+	public void render(final long timeBudgetMillis) {
+		if(timeBudgetMillis < 1L || timeBudgetMillis > Long.MAX_VALUE / 2000000L) {
+			throw new IllegalArgumentException("The provided time budget is out of range: " + timeBudgetMillis);
+		}
+		
+		doRender(Integer.MAX_VALUE, System.nanoTime() + timeBudgetMillis * 1000000L);
+	}
+	
+	public void setCheckpointPath(final Path checkpointPath) {
+		this.checkpointPath = checkpointPath;
+	}
+	
+	public void setSamplerSupplier(final Supplier<Sampler> samplerSupplier) {
+		this.samplerSupplier = Objects.requireNonNull(samplerSupplier, "samplerSupplier == null");
+	}
+	
+	public void setSampleErrorThreshold(final double sampleErrorThreshold) {
+		if(!(sampleErrorThreshold >= 0.0D)) {
+			throw new IllegalArgumentException("sampleErrorThreshold < 0.0D || Double.isNaN(sampleErrorThreshold)");
+		}
+		
+		this.sampleErrorThreshold = sampleErrorThreshold;
+	}
+	
+	public void setSamples(final int samplesMinimum, final int samplesMaximum) {
+		this.samplesMinimum = Ints.requireRange(samplesMinimum, 1, Integer.MAX_VALUE, "samplesMinimum");
+		this.samplesMaximum = Ints.requireRange(samplesMaximum, samplesMinimum, Integer.MAX_VALUE, "samplesMaximum");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static void main(final String[] args) {
+		final Arguments arguments;
+		
+		try {
+			arguments = Arguments.parse(args);
+		} catch(final IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(Arguments.USAGE);
+			System.exit(2);
+			
+			return;
+		}
+		
+		if(arguments.isHelp) {
+			System.out.println(Arguments.USAGE);
+			
+			return;
+		}
+		
+		final long currentTimeNanosA = System.nanoTime();
+		
+		final Scene scene = arguments.createScene();
+		
+		scene.getAccelerationStructure();
+		
+		final long currentTimeNanosB = System.nanoTime();
+		
+		final
+		PathTracer pathTracer = new PathTracer(scene, Integrator.pathTracing(arguments.depthMinimum, arguments.depthMaximum), arguments.resolutionX, arguments.resolutionY, arguments.threadCount);
+		pathTracer.setCheckpointPath(arguments.checkpointPath);
+		pathTracer.setSamplerSupplier(arguments.createSamplerSupplier());
+		pathTracer.setSampleErrorThreshold(arguments.sampleErrorThreshold);
+		pathTracer.setSamples(arguments.samplesMinimum, arguments.samplesMaximum);
 		
-		final int threadCount = 6;
+		if(arguments.isResuming && pathTracer.resume(arguments.checkpointPath)) {
+			System.out.println("Resumed from " + arguments.checkpointPath + " at pass " + pathTracer.getPassCount() + ".");
+		}
+		
+		if(arguments.timeBudgetMillis > 0L) {
+			pathTracer.render(arguments.timeBudgetMillis);
+		} else {
+			pathTracer.render();
+		}
+		
+		final long currentTimeNanosC = System.nanoTime();
+		
+		final Image image = pathTracer.getFilm().toImage();
+		final Image imageSampleCount = pathTracer.getFilm().toSampleCountImage();
+		
+		final long currentTimeNanosD = System.nanoTime();
+		
+		image.save(arguments.output, arguments.format);
+		imageSampleCount.save(arguments.getOutputSampleCount(), arguments.format);
+		
+		final long currentTimeNanosE = System.nanoTime();
+		
+		System.out.printf("Timing: build=%d render=%d postprocess=%d encode=%d total=%d (milliseconds)%n", Long.valueOf((currentTimeNanosB - currentTimeNanosA) / 1000000L), Long.valueOf((currentTimeNanosC - currentTimeNanosB) / 1000000L), Long.valueOf((currentTimeNanosD - currentTimeNanosC) / 1000000L), Long.valueOf((currentTimeNanosE - currentTimeNanosD) / 1000000L), Long.valueOf((currentTimeNanosE - currentTimeNanosA) / 1000000L));
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private boolean doIsSampling(final int pixelX, final int pixelY, final int samplesMaximum) {
+		final int sampleCount = this.film.getSampleCount(pixelX, pixelY);
+		
+		if(sampleCount < this.samplesMinimum) {
+			return true;
+		}
+		
+		if(sampleCount >= samplesMaximum) {
+			return false;
+		}
+		
+		return this.film.getRelativeError(pixelX, pixelY) > this.sampleErrorThreshold;
+	}
+	
+	private boolean doUpdateSampling(final Tile tile, final int samplesMaximum) {
+		boolean isSamplingTile = false;
+		
+		for(int pixelY = tile.getMinimumY(); pixelY < tile.getMaximumY(); pixelY++) {
+			for(int pixelX = tile.getMinimumX(); pixelX < tile.getMaximumX(); pixelX++) {
+				final boolean isSampling = doIsSampling(pixelX, pixelY, samplesMaximum);
+				
+				this.isSampling[pixelY * this.resolutionX + pixelX] = isSampling;
+				
+				isSamplingTile |= isSampling;
+			}
+		}
+		
+		return isSamplingTile;
+	}
+	
+	private long doRenderPass(final int samplesMaximum, final long deadlineNanos) {
+		final int pass = this.passCount;
+		
+		final List<ForkJoinTask<Boolean>> samplingTasks = new ArrayList<>(this.tiles.size());
+		
+		for(final Tile tile : this.tiles) {
+			samplingTasks.add(this.forkJoinPool.submit(() -> Boolean.valueOf(doUpdateSampling(tile, samplesMaximum))));
+		}
+		
+		final List<Tile> tiles = new ArrayList<>(this.tiles.size());
+		
+		for(int i = 0; i < samplingTasks.size(); i++) {
+			if(samplingTasks.get(i).join().booleanValue()) {
+				tiles.add(this.tiles.get(i));
+			}
+		}
 		
-		final int pixelCount = RESOLUTION_X * RESOLUTION_Y;
-		final int pixelCountPerThread = (int)(Doubles.ceil((double)(pixelCount) / (double)(threadCount)));
+		final List<ForkJoinTask<Long>> tasks = new ArrayList<>(tiles.size());
 		
-		final CountDownLatch countDownLatch = new CountDownLatch(threadCount);
+		for(final Tile tile : tiles) {
+			tasks.add(this.forkJoinPool.submit(() -> {
+				final long allocatedBytesA = doGetCurrentThreadAllocatedBytes();
+				
+				final long sampleCount = doRenderTile(tile, deadlineNanos);
+				
+				this.allocatedBytes.addAndGet(doGetCurrentThreadAllocatedBytes() - allocatedBytesA);
+				
+				return Long.valueOf(sampleCount);
+			}));
+		}
+		
+		long sampleCount = 0L;
+		
+		for(final ForkJoinTask<Long> task : tasks) {
+			sampleCount += task.join().longValue();
+		}
+		
+		this.passCount = pass + 1;
+		
+		return sampleCount;
+	}
+	
+	private long doRenderTile(final Tile tile, final long deadlineNanos) {
+		final long currentTimeNanosA = System.nanoTime();
 		
-		for(int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
-			final int pixelIndexStart = threadIndex * pixelCountPerThread;
-			final int pixelIndexEnd = Ints.min(pixelIndexStart + pixelCountPerThread, pixelCount);
+		final Sampler sampler = this.samplerSupplier.get();
+		
+		final double[] radiance = new double[3];
+		
+		long sampleCount = 0L;
+		
+		for(int pixelY = tile.getMinimumY(); pixelY < tile.getMaximumY(); pixelY++) {
+			if(doIsExpired(deadlineNanos)) {
+				break;
+			}
 			
-			new Thread(() -> {
-				for(int pixelIndex = pixelIndexStart; pixelIndex < pixelIndexEnd; pixelIndex++) {
-					final int pixelX = pixelIndex % RESOLUTION_X;
-					final int pixelY = pixelIndex / RESOLUTION_X;
+			for(int pixelX = tile.getMinimumX(); pixelX < tile.getMaximumX(); pixelX++) {
+				if(this.isSampling[pixelY * this.resolutionX + pixelX]) {
+					sampler.setPixelSample(pixelX, pixelY, this.film.getSampleCount(pixelX, pixelY));
 					
-					Color3D totalRadiance = Color3D.BLACK;
+					this.integrator.radiance(this.scene, this.scene.getCamera().generatePrimaryRay(pixelX, pixelY, sampler), sampler, radiance);
 					
-					for(int sampleY = 0; sampleY < SAMPLE_RESOLUTION_Y; sampleY++) {
-						for(int sampleX = 0; sampleX < SAMPLE_RESOLUTION_X; sampleX++) {
-							Color3D radiance = Color3D.BLACK;
-							
-							for(int sample = 0; sample < SAMPLES; sample++) {
-								radiance = Color3D.add(radiance, Color3D.divide(this.scene.radiance(this.scene.getCamera().generatePrimaryRay(pixelX, pixelY, sampleX, sampleY)), SAMPLES));
-							}
-							
-							totalRadiance = Color3D.add(totalRadiance, Color3D.divide(Color3D.saturate(radiance), SAMPLE_RESOLUTION_X * SAMPLE_RESOLUTION_Y));
-						}
-					}
+					this.film.addSample(pixelX, pixelY, radiance[0], radiance[1], radiance[2]);
 					
-					this.image.setColor3D(totalRadiance, pixelIndex);
+					sampleCount++;
 				}
+			}
+		}
+		
+		tile.addRenderTimeNanos(System.nanoTime() - currentTimeNanosA);
+		
+		return sampleCount;
+	}
+	
+	private void doCheckpoint(final boolean isWaiting) {
+		final Path checkpointPath = this.checkpointPath;
+		
+		if(checkpointPath == null) {
+			return;
+		}
+		
+		final Future<?> checkpointFuture = this.checkpointFuture;
+		
+		if(checkpointFuture != null && !checkpointFuture.isDone() && !isWaiting) {
+			return;
+		}
+		
+		if(checkpointFuture != null) {
+			doAwait(checkpointFuture);
+		}
+		
+		final Film film = this.film.copy();
+		
+		final Sampler sampler = this.samplerSupplier.get();
+		
+		final int passCount = this.passCount;
+		
+		this.checkpointFuture = this.executorService.submit(() -> doWriteCheckpoint(checkpointPath, film, sampler, passCount));
+		
+		if(isWaiting) {
+			doAwait(this.checkpointFuture);
+		}
+	}
+	
+	private void doRender(final int samplesMaximum, final long deadlineNanos) {
+		final AccelerationStructure accelerationStructure = this.scene.getAccelerationStructure();
+		
+		System.out.println("Acceleration structure built in " + accelerationStructure.getBuildTimeMillis() + " milliseconds with " + accelerationStructure.getNodeCount() + " nodes.");
+		
+		final long currentTimeMillisA = System.currentTimeMillis();
+		
+		final long rayCountA = this.scene.getRayCount();
+		
+		long checkpointTimeMillis = currentTimeMillisA;
+		long sampleCount = 0L;
+		
+		boolean isFirstPass = true;
+		
+		while(this.passCount < samplesMaximum && !doIsExpired(deadlineNanos)) {
+			final long sampleCountPass = doRenderPass(samplesMaximum, deadlineNanos);
+			
+			if(sampleCountPass == 0L) {
+				break;
+			}
+			
+			sampleCount += sampleCountPass;
+			
+			if(isFirstPass && !doIsExpired(deadlineNanos)) {
+				System.out.println("First pass completed in " + (System.currentTimeMillis() - currentTimeMillisA) + " milliseconds.");
+			}
+			
+			if(System.currentTimeMillis() - checkpointTimeMillis >= CHECKPOINT_INTERVAL_MILLIS) {
+				doCheckpoint(false);
 				
-				countDownLatch.countDown();
-			}).start();
+				checkpointTimeMillis = System.currentTimeMillis();
+			}
+			
+			isFirstPass = false;
+		}
+		
+		doCheckpoint(true);
+		
+		final long currentTimeMillisB = System.currentTimeMillis();
+		final long currentTimeMillisC =  currentTimeMillisB -  currentTimeMillisA;
+		
+		long tileTimeNanosMaximum = 0L;
+		long tileTimeNanosMinimum = Long.MAX_VALUE;
+		long tileTimeNanosTotal = 0L;
+		
+		for(final Tile tile : this.tiles) {
+			final long tileTimeNanos = tile.getRenderTimeNanos();
+			
+			tileTimeNanosMaximum = tileTimeNanos > tileTimeNanosMaximum ? tileTimeNanos : tileTimeNanosMaximum;
+			tileTimeNanosMinimum = tileTimeNanos < tileTimeNanosMinimum ? tileTimeNanos : tileTimeNanosMinimum;
+			tileTimeNanosTotal += tileTimeNanos;
 		}
 		
+		final double utilization = tileTimeNanosTotal / 1000000.0D / Doubles.max(currentTimeMillisC * this.forkJoinPool.getParallelism(), 1.0D);
+		
+		final long rayCount = this.scene.getRayCount() - rayCountA;
+		
+		final double seconds = Doubles.max(currentTimeMillisC / 1000.0D, 0.001D);
+		
+		System.out.println("Rendering completed in " + currentTimeMillisC + " milliseconds with " + this.passCount + " passes.");
+		System.out.println("Traced " + sampleCount + " paths (" + String.format("%.2f", (double)(sampleCount) / (this.resolutionX * this.resolutionY)) + " per pixel, " + (long)(sampleCount / seconds) + " paths/s) and " + rayCount + " rays (" + (long)(rayCount / seconds) + " rays/s).");
+		System.out.println("Rendered " + this.tiles.size() + " tiles of " + TILE_SIZE + "x" + TILE_SIZE + " pixels on " + this.forkJoinPool.getParallelism() + " threads in " + tileTimeNanosMinimum / 1000000L + " / " + tileTimeNanosTotal / this.tiles.size() / 1000000L + " / " + tileTimeNanosMaximum / 1000000L + " milliseconds (min / avg / max) per tile at " + (long)(Doubles.min(utilization, 1.0D) * 100.0D) + "% utilization.");
+		System.out.println("Render threads allocated " + this.allocatedBytes.get() / (1024L * 1024L) + " MB at " + (long)(this.allocatedBytes.get() / (1024.0D * 1024.0D) / seconds) + " MB/s.");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static ByteBuffer doRead(final FileChannel fileChannel, final int length) throws IOException {
+		final ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+		
+		while(byteBuffer.hasRemaining()) {
+			if(fileChannel.read(byteBuffer) < 0) {
+				throw new EOFException();
+			}
+		}
+		
+		byteBuffer.flip();
+		
+		return byteBuffer;
+	}
+	
+	private static boolean doIsExpired(final long deadlineNanos) {
+		return deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0L;
+	}
+	
+	private static long doGetCurrentThreadAllocatedBytes() {
+		final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		
+		return threadMXBean instanceof ThreadMXBean ? ThreadMXBean.class.cast(threadMXBean).getCurrentThreadAllocatedBytes() : 0L;
+	}
+	
+	private static void doAwait(final Future<?> future) {
 		try {
-			countDownLatch.await();
+			future.get();
+		} catch(final ExecutionException e) {
+			System.err.println("Checkpoint failed: " + e.getCause());
 		} catch(final InterruptedException e) {
-			e.printStackTrace();
+			Thread.currentThread().interrupt();
 		}
+	}
+	
+	private static void doWriteCheckpoint(final Path checkpointPath, final Film film, final Sampler sampler, final int passCount) {
+		final Path checkpointPathTemporary = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
 		
-		final long currentTimeMillisB = System.currentTimeMillis();
-		final long currentTimeMillisC =  currentTimeMillisB -  currentTimeMillisA;
+		try {
+			try(final FileChannel fileChannel = FileChannel.open(checkpointPathTemporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				final byte[] samplerName = sampler.getName().getBytes(StandardCharsets.UTF_8);
+				
+				final
+				ByteBuffer byteBuffer = ByteBuffer.allocate(20 + samplerName.length);
+				byteBuffer.putInt(CHECKPOINT_MAGIC);
+				byteBuffer.putInt(CHECKPOINT_VERSION);
+				byteBuffer.putInt(passCount);
+				byteBuffer.putInt(sampler.getSeed());
+				byteBuffer.putInt(samplerName.length);
+				byteBuffer.put(samplerName);
+				byteBuffer.flip();
+				
+				while(byteBuffer.hasRemaining()) {
+					fileChannel.write(byteBuffer);
+				}
+				
+				film.write(fileChannel);
+				
+				fileChannel.force(true);
+			}
+			
+			Files.move(checkpointPathTemporary, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Arguments {
+		public static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: java org.dayflower.pt.PathTracer [options]",
+			"  --scene=<smallpt|cornell>   the scene to render (default smallpt)",
+			"  --width=<pixels>            the horizontal resolution (default 1024)",
+			"  --height=<pixels>           the vertical resolution (default 768)",
+			"  --spp-min=<samples>         the minimum samples per pixel (default 8)",
+			"  --spp-max=<samples>         the maximum samples per pixel (default 64)",
+			"  --error=<relative error>    the adaptive sampling threshold (default 0.6)",
+			"  --depth-min=<bounces>       the depth where Russian roulette starts (default 5)",
+			"  --depth-max=<bounces>       the maximum path depth (default 20)",
+			"  --sampler=<name>            random, halton, sobol or pmj02 (default sobol)",
+			"  --seed=<integer>            the seed of the sampler (default 0)",
+			"  --threads=<count>           the render thread count (default all processors)",
+			"  --time-budget=<ms>          stop at a wall-clock deadline instead of --spp-max",
+			"  --checkpoint=<file>         write periodic checkpoints to this file",
+			"  --resume                    continue from --checkpoint if it exists",
+			"  --output=<file>             the output image (default ./PT-<time>.png)",
+			"  --format=<png|jpg|bmp|gif>  the output format (default from --output, else png)",
+			"  --help                      print this message");
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Path checkpointPath = null;
+		public String format = null;
+		public String output = null;
+		public String samplerName = "sobol";
+		public String sceneName = "smallpt";
+		public boolean isHelp = false;
+		public boolean isResuming = false;
+		public double sampleErrorThreshold = 0.6D;
+		public int depthMaximum = 20;
+		public int depthMinimum = 5;
+		public int resolutionX = 1024;
+		public int resolutionY = 768;
+		public int samplesMaximum = 64;
+		public int samplesMinimum = 8;
+		public int seed = 0;
+		public int threadCount = Runtime.getRuntime().availableProcessors();
+		public long timeBudgetMillis = 0L;
 		
-		this.image.fillD(Color4DPixelOperator.redoGammaCorrection());
-		this.image.flipY();
-		this.image.save(String.format("./PT-%s.png", Long.toString(System.currentTimeMillis())));
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Arguments() {
+			
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Scene createScene() {
+			final Camera camera = new Camera(this.resolutionX, this.resolutionY);
+			
+			switch(this.sceneName) {
+				case "cornell":
+					return Scene.createScene(camera);
+				case "smallpt":
+					return Scene.createSceneSmallPT(camera);
+				default:
+					throw new IllegalArgumentException("Unknown scene: " + this.sceneName);
+			}
+		}
 		
-		System.out.println("Rendering completed in " + currentTimeMillisC + " milliseconds.");
+		public Supplier<Sampler> createSamplerSupplier() {
+			final int seed = this.seed;
+			
+			switch(this.samplerName) {
+				case "halton":
+					return () -> Sampler.halton(seed);
+				case "pmj02":
+					return () -> Sampler.pmj02(seed);
+				case "random":
+					return () -> Sampler.random(seed);
+				case "sobol":
+					return () -> Sampler.sobol(seed);
+				default:
+					throw new IllegalArgumentException("Unknown sampler: " + this.samplerName);
+			}
+		}
+		
+		public String getOutputSampleCount() {
+			final int index = this.output.lastIndexOf('.');
+			
+			return index > 0 ? this.output.substring(0, index) + "-Samples" + this.output.substring(index) : this.output + "-Samples";
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public static Arguments parse(final String[] args) {
+			final Arguments arguments = new Arguments();
+			
+			for(final String arg : args) {
+				final int index = arg.indexOf('=');
+				
+				final String name = index >= 0 ? arg.substring(0, index) : arg;
+				final String value = index >= 0 ? arg.substring(index + 1) : "";
+				
+				try {
+					switch(name) {
+						case "--checkpoint":
+							arguments.checkpointPath = Paths.get(value);
+							break;
+						case "--depth-max":
+							arguments.depthMaximum = Integer.parseInt(value);
+							break;
+						case "--depth-min":
+							arguments.depthMinimum = Integer.parseInt(value);
+							break;
+						case "--error":
+							arguments.sampleErrorThreshold = Double.parseDouble(value);
+							break;
+						case "--format":
+							arguments.format = value;
+							break;
+						case "--height":
+							arguments.resolutionY = Integer.parseInt(value);
+							break;
+						case "--help":
+							arguments.isHelp = true;
+							break;
+						case "--output":
+							arguments.output = value;
+							break;
+						case "--resume":
+							arguments.isResuming = true;
+							break;
+						case "--sampler":
+							arguments.samplerName = value;
+							break;
+						case "--scene":
+							arguments.sceneName = value;
+							break;
+						case "--seed":
+							arguments.seed = Integer.parseInt(value);
+							break;
+						case "--spp-max":
+							arguments.samplesMaximum = Integer.parseInt(value);
+							break;
+						case "--spp-min":
+							arguments.samplesMinimum = Integer.parseInt(value);
+							break;
+						case "--threads":
+							arguments.threadCount = Integer.parseInt(value);
+							break;
+						case "--time-budget":
+							arguments.timeBudgetMillis = Long.parseLong(value);
+							break;
+						case "--width":
+							arguments.resolutionX = Integer.parseInt(value);
+							break;
+						default:
+							throw new IllegalArgumentException("Unknown option: " + arg);
+					}
+				} catch(final NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+				}
+			}
+			
+			if(arguments.isResuming && arguments.checkpointPath == null) {
+				throw new IllegalArgumentException("--resume requires --checkpoint.");
+			}
+			
+			if(!arguments.samplerName.matches("halton|pmj02|random|sobol")) {
+				throw new IllegalArgumentException("Unknown sampler: " + arguments.samplerName);
+			}
+			
+			if(arguments.output == null) {
+				arguments.output = "./PT-" + System.currentTimeMillis() + "." + (arguments.format != null ? arguments.format : "png");
+			}
+			
+			if(arguments.format == null) {
+				final int index = arguments.output.lastIndexOf('.');
+				
+				arguments.format = index > 0 ? arguments.output.substring(index + 1).toLowerCase() : "png";
+			}
+			
+			return arguments;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	public static void main(final String[] args) {
-		final
-		PathTracer pathTracer = new PathTracer();
-		pathTracer.render();
+	private static final class Tile {
+		private final int maximumX;
+		private final int maximumY;
+		private final int minimumX;
+		private final int minimumY;
+		private volatile long renderTimeNanos;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Tile(final int minimumX, final int minimumY, final int maximumX, final int maximumY) {
+			this.maximumX = maximumX;
+			this.maximumY = maximumY;
+			this.minimumX = minimumX;
+			this.minimumY = minimumY;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public int getMaximumX() {
+			return this.maximumX;
+		}
+		
+		public int getMaximumY() {
+			return this.maximumY;
+		}
+		
+		public int getMinimumX() {
+			return this.minimumX;
+		}
+		
+		public int getMinimumY() {
+			return this.minimumY;
+		}
+		
+		public long getRenderTimeNanos() {
+			return this.renderTimeNanos;
+		}
+		
+		public void addRenderTimeNanos(final long renderTimeNanos) {
+			this.renderTimeNanos += renderTimeNanos;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public static List<Tile> createTiles(final int resolutionX, final int resolutionY, final int tileSize) {
+			final List<Tile> tiles = new ArrayList<>();
+			
+			for(int minimumY = 0; minimumY < resolutionY; minimumY += tileSize) {
+				for(int minimumX = 0; minimumX < resolutionX; minimumX += tileSize) {
+					tiles.add(new Tile(minimumX, minimumY, Ints.min(minimumX + tileSize, resolutionX), Ints.min(minimumY + tileSize, resolutionY)));
+				}
+			}
+			
+			return tiles;
+		}
 	}
 }
\ No newline at end of file
@@ -22,15 +22,20 @@ import java.util.Objects;
 import java.util.Optional;
 
 import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.common.Point2D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector3D;
 import org.macroing.geo4j.matrix.Matrix44D;
 import org.macroing.geo4j.ray.Ray3D;
 import org.macroing.java.lang.Doubles;
 
-public final class Primitive {
+public final class Primitive implements Intersectable {
 	private final BoundingVolume3D boundingVolume;
 	private final Material material;
 	private final Shape shape;
 	private final Transform transform;
+	private final boolean isIdentity;
+	private final boolean isSimilarity;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
@@ -43,30 +48,89 @@ public final class Primitive {
 		this.shape = Objects.requireNonNull(shape, "shape == null");
 		this.transform = Objects.requireNonNull(transform, "transform == null");
 		this.boundingVolume = this.shape.getBoundingVolume().transform(this.transform.getObjectToWorld());
+		this.isIdentity = this.transform.getObjectToWorld().equals(Matrix44D.identity());
+		this.isSimilarity = this.transform.getScale().x == this.transform.getScale().y && this.transform.getScale().y == this.transform.getScale().z;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	@Override
+	public BoundingVolume3D getBoundingVolume() {
+		return this.boundingVolume;
+	}
+	
 	public Material getMaterial() {
 		return this.material;
 	}
 	
+	@Override
+	public Optional<Intersection> createIntersection(final Ray3D rayWS, final double tWS, final double tMinimum, final double tMaximum, final Shape.Hit hit) {
+		final Matrix44D objectToWorld = this.transform.getObjectToWorld();
+		final Matrix44D worldToObject = this.transform.getWorldToObject();
+		
+		if(this.isIdentity) {
+			return Optional.of(new Intersection(this, objectToWorld, worldToObject, rayWS, rayWS, tWS, tWS, hit.copy()));
+		}
+		
+		final Ray3D rayOS = worldToObject.transform(rayWS);
+		
+		return Optional.of(new Intersection(this, objectToWorld, worldToObject, rayOS, rayWS, tWS * Math.transformLength(worldToObject, rayWS.getDirection()), tWS, hit.copy()));
+	}
+	
+	public Optional<Vector3D> getSurfaceNormal() {
+		if(!isSampleable()) {
+			return Optional.empty();
+		}
+		
+		if(this.isIdentity) {
+			return this.shape.getSurfaceNormal();
+		}
+		
+		final Matrix44D objectToWorld = this.transform.getObjectToWorld();
+		
+		return this.shape.getSurfaceNormal().map(surfaceNormalOS -> Vector3D.normalize(objectToWorld.transform(surfaceNormalOS)));
+	}
+	
+	@Override
 	public Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
-		if(this.boundingVolume.contains(rayWS.getOrigin()) || this.boundingVolume.intersects(rayWS, tMinimum, tMaximum)) {
-			final Matrix44D worldToObject = this.transform.getWorldToObject();
-			
-			final Ray3D rayOS = worldToObject.transform(rayWS);
-			
-			final double tOS = this.shape.intersection(rayOS, tMinimum, worldToObject.transformT(rayWS, rayOS, tMaximum));
-			
-			if(!Doubles.isNaN(tOS)) {
-				return Optional.of(new Intersection(this, rayOS, tOS));
-			}
+		final Shape.Hit hit = new Shape.Hit();
+		
+		final double tWS = intersectionT(rayWS, tMinimum, tMaximum, hit);
+		
+		if(!Doubles.isNaN(tWS)) {
+			return createIntersection(rayWS, tWS, tMinimum, tMaximum, hit);
 		}
 		
 		return Optional.empty();
 	}
 	
+	public Optional<Shape.SurfaceSample> sample(final Point3D referencePointWS, final Point2D sample) {
+		if(!isSampleable()) {
+			return Optional.empty();
+		}
+		
+		if(this.isIdentity) {
+			return this.shape.sample(referencePointWS, sample);
+		}
+		
+		final Matrix44D objectToWorld = this.transform.getObjectToWorld();
+		final Matrix44D worldToObject = this.transform.getWorldToObject();
+		
+		final Optional<Shape.SurfaceSample> optionalSurfaceSampleOS = this.shape.sample(worldToObject.transform(referencePointWS), sample);
+		
+		if(!optionalSurfaceSampleOS.isPresent()) {
+			return optionalSurfaceSampleOS;
+		}
+		
+		final Shape.SurfaceSample surfaceSampleOS = optionalSurfaceSampleOS.get();
+		
+		final Point3D pointWS = objectToWorld.transform(surfaceSampleOS.getPoint());
+		
+		final Vector3D surfaceNormalWS = Vector3D.normalize(objectToWorld.transform(surfaceSampleOS.getSurfaceNormal()));
+		
+		return Optional.of(new Shape.SurfaceSample(pointWS, surfaceNormalWS, surfaceSampleOS.getProbabilityDensityFunctionValue()));
+	}
+	
 	public Shape getShape() {
 		return this.shape;
 	}
@@ -109,6 +173,70 @@ public final class Primitive {
 		}
 	}
 	
+	@Override
+	public boolean intersects(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+		if(this.boundingVolume.contains(rayWS.getOrigin()) || this.boundingVolume.intersects(rayWS, tMinimum, tMaximum)) {
+			if(this.isIdentity) {
+				return this.shape.intersects(rayWS, tMinimum, tMaximum);
+			}
+			
+			final Matrix44D worldToObject = this.transform.getWorldToObject();
+			
+			final Ray3D rayOS = worldToObject.transform(rayWS);
+			
+			return this.shape.intersects(rayOS, tMinimum, worldToObject.transformT(rayWS, rayOS, tMaximum));
+		}
+		
+		return false;
+	}
+	
+	public boolean isSampleable() {
+		return this.isSimilarity && this.shape.isSampleable();
+	}
+	
+	public double evaluatePDF(final Point3D referencePointWS, final Point3D pointWS) {
+		if(!isSampleable()) {
+			return 0.0D;
+		}
+		
+		if(this.isIdentity) {
+			return this.shape.evaluatePDF(referencePointWS, pointWS);
+		}
+		
+		final Matrix44D worldToObject = this.transform.getWorldToObject();
+		
+		return this.shape.evaluatePDF(worldToObject.transform(referencePointWS), worldToObject.transform(pointWS));
+	}
+	
+	public double getSurfaceArea() {
+		if(!isSampleable()) {
+			return 0.0D;
+		}
+		
+		final double scale = this.transform.getScale().x;
+		
+		return this.shape.getSurfaceArea() * scale * scale;
+	}
+	
+	@Override
+	public double intersectionT(final Ray3D rayWS, final double tMinimum, final double tMaximum, final Shape.Hit hit) {
+		if(this.boundingVolume.contains(rayWS.getOrigin()) || this.boundingVolume.intersects(rayWS, tMinimum, tMaximum)) {
+			if(this.isIdentity) {
+				return this.shape.intersection(rayWS, tMinimum, tMaximum, hit);
+			}
+			
+			final Matrix44D worldToObject = this.transform.getWorldToObject();
+			
+			final Ray3D rayOS = worldToObject.transform(rayWS);
+			
+			final double scale = Math.transformLength(worldToObject, rayWS.getDirection());
+			
+			return this.shape.intersection(rayOS, tMinimum, tMaximum * scale, hit) / scale;
+		}
+		
+		return Doubles.NaN;
+	}
+	
 	@Override
 	public int hashCode() {
 		return Objects.hash(this.boundingVolume, this.material, this.shape, this.transform);
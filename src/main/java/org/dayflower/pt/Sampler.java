@@ -0,0 +1,430 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import org.macroing.geo4j.common.Point2D;
+import org.macroing.java.util.Randoms;
+
+public abstract class Sampler {
+	private static final Sampler THREAD_LOCAL_RANDOM = new ThreadLocalRandomSampler();
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	protected Sampler() {
+		
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public abstract Point2D sample2D();
+	
+	public abstract String getName();
+	
+	public abstract double sample1D();
+	
+	public abstract int getSeed();
+	
+	public abstract void setDimension(final int dimension);
+	
+	public abstract void setPixelSample(final int pixelX, final int pixelY, final int sampleIndex);
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static Sampler halton() {
+		return halton(0);
+	}
+	
+	public static Sampler halton(final int seed) {
+		return new HaltonSampler(seed);
+	}
+	
+	public static Sampler pmj02() {
+		return pmj02(0);
+	}
+	
+	public static Sampler pmj02(final int seed) {
+		return new PMJ02Sampler(seed);
+	}
+	
+	public static Sampler random() {
+		return random(0);
+	}
+	
+	public static Sampler random(final int seed) {
+		return new RandomSampler(seed);
+	}
+	
+	public static Sampler sobol() {
+		return sobol(0);
+	}
+	
+	public static Sampler sobol(final int seed) {
+		return new SobolSampler(seed);
+	}
+	
+	public static Sampler threadLocalRandom() {
+		return THREAD_LOCAL_RANDOM;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static double doToDouble(final int bits) {
+		return (bits & 0xFFFFFFFFL) * 0x1.0p-32D;
+	}
+	
+	private static int doHash(final int value) {
+		int x = value;
+		
+		x ^= x >>> 16;
+		x *= 0x7FEB352D;
+		x ^= x >>> 15;
+		x *= 0x846CA68B;
+		x ^= x >>> 16;
+		
+		return x;
+	}
+	
+	private static int doHash(final int valueA, final int valueB) {
+		return doHash(valueA ^ doHash(valueB) + 0x9E3779B9 + (valueA << 6) + (valueA >>> 2));
+	}
+	
+	private static int doNestedUniformScramble(final int value, final int seed) {
+		int x = Integer.reverse(value);
+		
+		x ^= x * 0x3D20ADEA;
+		x += seed;
+		x *= (seed >>> 16) | 1;
+		x ^= x * 0x05526C56;
+		x ^= x * 0x53A22864;
+		
+		return Integer.reverse(x);
+	}
+	
+	private static int doPCGHash(final int value) {
+		final int state = value * 747796405 + 0xAC564B05;
+		final int word = ((state >>> ((state >>> 28) + 4)) ^ state) * 277803737;
+		
+		return (word >>> 22) ^ word;
+	}
+	
+	private static int doSobol0(final int index) {
+		return Integer.reverse(index);
+	}
+	
+	private static int doSobol1(final int index) {
+		int result = 0;
+		int v = 1 << 31;
+		
+		for(int i = index; i != 0; i >>>= 1, v ^= v >>> 1) {
+			if((i & 1) != 0) {
+				result ^= v;
+			}
+		}
+		
+		return result;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class HaltonSampler extends SequenceSampler {
+		private static final int[] PRIMES = doCreatePrimes(256);
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public HaltonSampler(final int seed) {
+			super(seed);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public String getName() {
+			return "halton";
+		}
+		
+		@Override
+		protected double computeSample1D(final int pixelHash, final int sampleIndex, final int dimension) {
+			final int hash = doHash(pixelHash, dimension);
+			
+			if(dimension >= PRIMES.length) {
+				return doToDouble(doHash(hash, sampleIndex));
+			}
+			
+			final double sample = doRadicalInverse(PRIMES[dimension], sampleIndex) + doToDouble(hash);
+			
+			return sample < 1.0D ? sample : sample - 1.0D;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static double doRadicalInverse(final int base, final int index) {
+			final double baseReciprocal = 1.0D / base;
+			
+			double baseReciprocalN = 1.0D;
+			double reversedDigits = 0.0D;
+			
+			for(int i = index; i > 0; i /= base) {
+				reversedDigits = reversedDigits * base + i % base;
+				
+				baseReciprocalN *= baseReciprocal;
+			}
+			
+			return reversedDigits * baseReciprocalN;
+		}
+		
+		private static int[] doCreatePrimes(final int count) {
+			final int[] primes = new int[count];
+			
+			for(int candidate = 2, i = 0; i < count; candidate++) {
+				boolean isPrime = true;
+				
+				for(int j = 0; j < i && primes[j] * primes[j] <= candidate; j++) {
+					if(candidate % primes[j] == 0) {
+						isPrime = false;
+						
+						break;
+					}
+				}
+				
+				if(isPrime) {
+					primes[i++] = candidate;
+				}
+			}
+			
+			return primes;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class PMJ02Sampler extends SequenceSampler {
+		private static final int SAMPLE_COUNT = 4096;
+		private static final int SET_COUNT = 16;
+		private static final int[] TABLE = doCreateTable();
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public PMJ02Sampler(final int seed) {
+			super(seed);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public String getName() {
+			return "pmj02";
+		}
+		
+		@Override
+		protected Point2D computeSample2D(final int pixelHash, final int sampleIndex, final int dimension) {
+			final int hash = doHash(pixelHash, doHash(dimension, sampleIndex / SAMPLE_COUNT));
+			
+			final int offset = (Integer.remainderUnsigned(hash, SET_COUNT) * SAMPLE_COUNT + sampleIndex % SAMPLE_COUNT) * 2;
+			
+			final int x = TABLE[offset + 0] ^ doHash(hash, 1);
+			final int y = TABLE[offset + 1] ^ doHash(hash, 2);
+			
+			return new Point2D(doToDouble(x), doToDouble(y));
+		}
+		
+		@Override
+		protected double computeSample1D(final int pixelHash, final int sampleIndex, final int dimension) {
+			final int hash = doHash(pixelHash, doHash(dimension, sampleIndex / SAMPLE_COUNT));
+			
+			final int offset = (Integer.remainderUnsigned(hash, SET_COUNT) * SAMPLE_COUNT + sampleIndex % SAMPLE_COUNT) * 2;
+			
+			return doToDouble(TABLE[offset] ^ doHash(hash, 1));
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static int[] doCreateTable() {
+			final int[] table = new int[SET_COUNT * SAMPLE_COUNT * 2];
+			
+			for(int set = 0; set < SET_COUNT; set++) {
+				final int seedX = doHash(set, 0x504D4A30);
+				final int seedY = doHash(set, 0x504D4A31);
+				
+				for(int index = 0; index < SAMPLE_COUNT; index++) {
+					table[(set * SAMPLE_COUNT + index) * 2 + 0] = doNestedUniformScramble(doSobol0(index), seedX);
+					table[(set * SAMPLE_COUNT + index) * 2 + 1] = doNestedUniformScramble(doSobol1(index), seedY);
+				}
+			}
+			
+			return table;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class RandomSampler extends SequenceSampler {
+		public RandomSampler(final int seed) {
+			super(seed);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public String getName() {
+			return "random";
+		}
+		
+		@Override
+		protected double computeSample1D(final int pixelHash, final int sampleIndex, final int dimension) {
+			return doToDouble(doPCGHash(doPCGHash(doPCGHash(pixelHash) ^ sampleIndex) ^ dimension));
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private abstract static class SequenceSampler extends Sampler {
+		private final int seed;
+		private final int seedHash;
+		private int dimension;
+		private int pixelHash;
+		private int sampleIndex;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		protected SequenceSampler(final int seed) {
+			this.seed = seed;
+			this.seedHash = doHash(seed);
+			this.dimension = 0;
+			this.pixelHash = this.seedHash;
+			this.sampleIndex = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public final Point2D sample2D() {
+			final Point2D sample = computeSample2D(this.pixelHash, this.sampleIndex, this.dimension);
+			
+			this.dimension += 2;
+			
+			return sample;
+		}
+		
+		@Override
+		public final double sample1D() {
+			return computeSample1D(this.pixelHash, this.sampleIndex, this.dimension++);
+		}
+		
+		@Override
+		public final int getSeed() {
+			return this.seed;
+		}
+		
+		@Override
+		public final void setDimension(final int dimension) {
+			this.dimension = dimension;
+		}
+		
+		@Override
+		public final void setPixelSample(final int pixelX, final int pixelY, final int sampleIndex) {
+			this.dimension = 0;
+			this.pixelHash = doHash(this.seedHash, doHash(pixelX, pixelY));
+			this.sampleIndex = sampleIndex;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		protected Point2D computeSample2D(final int pixelHash, final int sampleIndex, final int dimension) {
+			return new Point2D(computeSample1D(pixelHash, sampleIndex, dimension), computeSample1D(pixelHash, sampleIndex, dimension + 1));
+		}
+		
+		protected abstract double computeSample1D(final int pixelHash, final int sampleIndex, final int dimension);
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class SobolSampler extends SequenceSampler {
+		public SobolSampler(final int seed) {
+			super(seed);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public String getName() {
+			return "sobol";
+		}
+		
+		@Override
+		protected Point2D computeSample2D(final int pixelHash, final int sampleIndex, final int dimension) {
+			final int hash = doHash(pixelHash, dimension);
+			
+			final int index = doNestedUniformScramble(sampleIndex, hash);
+			
+			final int x = doNestedUniformScramble(doSobol0(index), doHash(hash, 1));
+			final int y = doNestedUniformScramble(doSobol1(index), doHash(hash, 2));
+			
+			return new Point2D(doToDouble(x), doToDouble(y));
+		}
+		
+		@Override
+		protected double computeSample1D(final int pixelHash, final int sampleIndex, final int dimension) {
+			final int hash = doHash(pixelHash, dimension);
+			
+			final int index = doNestedUniformScramble(sampleIndex, hash);
+			
+			return doToDouble(doNestedUniformScramble(doSobol0(index), doHash(hash, 1)));
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class ThreadLocalRandomSampler extends Sampler {
+		public ThreadLocalRandomSampler() {
+			
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		@Override
+		public Point2D sample2D() {
+			return new Point2D(Randoms.nextDouble(), Randoms.nextDouble());
+		}
+		
+		@Override
+		public String getName() {
+			return "threadLocalRandom";
+		}
+		
+		@Override
+		public double sample1D() {
+			return Randoms.nextDouble();
+		}
+		
+		@Override
+		public int getSeed() {
+			return 0;
+		}
+		
+		@Override
+		public void setDimension(final int dimension) {
+			
+		}
+		
+		@Override
+		public void setPixelSample(final int pixelX, final int pixelY, final int sampleIndex) {
+			
+		}
+	}
+}
\ No newline at end of file
@@ -19,9 +19,14 @@
 package org.dayflower.pt;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 import org.macroing.art4j.color.Color3D;
 import org.macroing.geo4j.common.Point3D;
@@ -29,61 +34,127 @@ import org.macroing.geo4j.common.Vector3D;
 import org.macroing.geo4j.quaternion.Quaternion4D;
 import org.macroing.geo4j.ray.Ray3D;
 import org.macroing.java.lang.Doubles;
-import org.macroing.java.util.Randoms;
 
 public final class Scene {
 	private final Camera camera;
+	private final List<Instance> instances;
 	private final List<Primitive> primitives;
+	private final LongAdder rayCount;
+	private volatile AccelerationStructure accelerationStructure;
+	private volatile Function<List<Intersectable>, AccelerationStructure> accelerationStructureFactory;
+	private volatile Function<List<Primitive>, LightSampler> lightSamplerFactory;
+	private volatile LightSampler lightSampler;
+	private volatile List<Primitive> lights;
+	private volatile Set<Primitive> lightsIdentitySet;
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	public Scene(final Camera camera) {
 		this.camera = Objects.requireNonNull(camera, "camera == null");
+		this.instances = new ArrayList<>();
 		this.primitives = new ArrayList<>();
+		this.rayCount = new LongAdder();
+		this.accelerationStructure = null;
+		this.accelerationStructureFactory = AccelerationStructure::boundingVolumeHierarchyFlattened;
+		this.lightSamplerFactory = LightSampler::boundingVolumeHierarchy;
+		this.lightSampler = null;
+		this.lights = null;
+		this.lightsIdentitySet = null;
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	public AccelerationStructure getAccelerationStructure() {
+		AccelerationStructure accelerationStructure = this.accelerationStructure;
+		
+		if(accelerationStructure == null) {
+			synchronized(this.primitives) {
+				accelerationStructure = this.accelerationStructure;
+				
+				if(accelerationStructure == null) {
+					accelerationStructure = this.accelerationStructure = Objects.requireNonNull(this.accelerationStructureFactory.apply(getIntersectables()), "accelerationStructureFactory.apply(getIntersectables()) == null");
+				}
+			}
+		}
+		
+		return accelerationStructure;
+	}
+	
 	public Camera getCamera() {
 		return this.camera;
 	}
 	
 	public Color3D radiance(final Ray3D ray) {
-		return radiance(ray, 0);
+		return Integrator.pathTracing().radiance(this, ray);
 	}
 	
-	public Color3D radiance(final Ray3D ray, final int depth) {
-		final Optional<Intersection> optionalIntersection = intersection(ray);
+	public LightSampler getLightSampler() {
+		LightSampler lightSampler = this.lightSampler;
 		
-		if(optionalIntersection.isPresent()) {
-			final Optional<Material.Result> optionalResult = optionalIntersection.get().getPrimitive().getMaterial().compute(optionalIntersection.get());
-			
-			if(optionalResult.isPresent()) {
-				final Material.Result result = optionalResult.get();
+		if(lightSampler == null) {
+			synchronized(this.primitives) {
+				lightSampler = this.lightSampler;
 				
-				if(depth >= 20) {
-					return result.getEmission();
+				if(lightSampler == null) {
+					lightSampler = this.lightSampler = Objects.requireNonNull(this.lightSamplerFactory.apply(getLights()), "lightSamplerFactory.apply(getLights()) == null");
 				}
+			}
+		}
+		
+		return lightSampler;
+	}
+	
+	public List<Instance> getInstances() {
+		synchronized(this.primitives) {
+			return new ArrayList<>(this.instances);
+		}
+	}
+	
+	public List<Intersectable> getIntersectables() {
+		synchronized(this.primitives) {
+			final List<Intersectable> intersectables = new ArrayList<>(this.primitives.size() + this.instances.size());
+			
+			intersectables.addAll(this.primitives);
+			intersectables.addAll(this.instances);
+			
+			return intersectables;
+		}
+	}
+	
+	public List<Primitive> getLights() {
+		List<Primitive> lights = this.lights;
+		
+		if(lights == null) {
+			synchronized(this.primitives) {
+				lights = this.lights;
 				
-				if(depth >= 5) {
-					final double probability = result.getReflectance().max();
+				if(lights == null) {
+					final List<Primitive> primitives = new ArrayList<>();
 					
-					if(Randoms.nextDouble() >= probability) {
-						return result.getEmission();
+					for(final Primitive primitive : this.primitives) {
+						if(primitive.isSampleable() && primitive.getMaterial().isEmissive()) {
+							primitives.add(primitive);
+						}
 					}
 					
-					return Color3D.add(result.getEmission(), Color3D.multiply(Color3D.divide(result.getReflectance(), probability), radiance(result.getRay(), depth + 1)));
+					final Set<Primitive> lightsIdentitySet = Collections.newSetFromMap(new IdentityHashMap<>());
+					
+					lightsIdentitySet.addAll(primitives);
+					
+					this.lightsIdentitySet = lightsIdentitySet;
+					
+					lights = this.lights = Collections.unmodifiableList(primitives);
 				}
-				
-				return Color3D.add(result.getEmission(), Color3D.multiply(result.getReflectance(), radiance(result.getRay(), depth + 1)));
 			}
 		}
 		
-		return Color3D.BLACK;
+		return lights;
 	}
 	
 	public List<Primitive> getPrimitives() {
-		return new ArrayList<>(this.primitives);
+		synchronized(this.primitives) {
+			return new ArrayList<>(this.primitives);
+		}
 	}
 	
 	public Optional<Intersection> intersection(final Ray3D rayWS) {
@@ -91,21 +162,57 @@ public final class Scene {
 	}
 	
 	public Optional<Intersection> intersection(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
-		Intersection intersection = null;
+		this.rayCount.increment();
 		
-		for(final Primitive primitive : this.primitives) {
-			final Optional<Intersection> optionalIntersection = primitive.intersection(rayWS, tMinimum, tMaximum);
-			
-			if(optionalIntersection.isPresent() && (intersection == null || optionalIntersection.get().getTWS() < intersection.getTWS())) {
-				intersection = optionalIntersection.get();
-			}
-		}
+		return getAccelerationStructure().intersection(rayWS, tMinimum, tMaximum);
+	}
+	
+	public boolean isLight(final Primitive primitive) {
+		return !getLights().isEmpty() && this.lightsIdentitySet.contains(primitive);
+	}
+	
+	public boolean isOccluded(final Ray3D rayWS) {
+		return isOccluded(rayWS, Math.EPSILON, Doubles.MAX_VALUE);
+	}
+	
+	public boolean isOccluded(final Ray3D rayWS, final double tMinimum, final double tMaximum) {
+		this.rayCount.increment();
 		
-		return Optional.ofNullable(intersection);
+		return getAccelerationStructure().intersects(rayWS, tMinimum, tMaximum);
+	}
+	
+	public long getRayCount() {
+		return this.rayCount.sum();
+	}
+	
+	public void addInstance(final Instance instance) {
+		synchronized(this.primitives) {
+			this.instances.add(Objects.requireNonNull(instance, "instance == null"));
+			this.accelerationStructure = null;
+		}
 	}
 	
 	public void addPrimitive(final Primitive primitive) {
-		this.primitives.add(Objects.requireNonNull(primitive, "primitive == null"));
+		synchronized(this.primitives) {
+			this.primitives.add(Objects.requireNonNull(primitive, "primitive == null"));
+			this.accelerationStructure = null;
+			this.lightSampler = null;
+			this.lights = null;
+		}
+	}
+	
+	public void setAccelerationStructureFactory(final Function<List<Intersectable>, AccelerationStructure> accelerationStructureFactory) {
+		synchronized(this.primitives) {
+			this.accelerationStructureFactory = Objects.requireNonNull(accelerationStructureFactory, "accelerationStructureFactory == null");
+			this.accelerationStructure = null;
+		}
+	}
+	
+	public void setLightSamplerFactory(final Function<List<Primitive>, LightSampler> lightSamplerFactory) {
+		synchronized(this.primitives) {
+			this.lightSamplerFactory = Objects.requireNonNull(lightSamplerFactory, "lightSamplerFactory == null");
+			this.lightSampler = null;
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
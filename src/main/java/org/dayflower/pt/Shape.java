@@ -18,7 +18,10 @@
  */
 package org.dayflower.pt;
 
+import java.util.Comparator;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.IntStream;
 
 import org.macroing.geo4j.bv.BoundingVolume3D;
 import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
@@ -43,14 +46,50 @@ public abstract class Shape {
 	
 	public abstract BoundingVolume3D getBoundingVolume();
 	
+	public Optional<Vector3D> getSurfaceNormal() {
+		return Optional.empty();
+	}
+	
+	public Optional<SurfaceSample> sample(final Point3D referencePoint, final Point2D sample) {
+		return Optional.empty();
+	}
+	
 	public abstract OrthonormalBasis33D computeOrthonormalBasis(final Ray3D ray, final double t);
 	
+	public OrthonormalBasis33D computeOrthonormalBasis(final Ray3D ray, final double t, final Hit hit) {
+		return computeOrthonormalBasis(ray, t);
+	}
+	
 	public abstract Point2D computeTextureCoordinates(final Ray3D ray, final double t);
 	
+	public Point2D computeTextureCoordinates(final Ray3D ray, final double t, final Hit hit) {
+		return computeTextureCoordinates(ray, t);
+	}
+	
 	public abstract boolean contains(final Point3D p);
 	
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		return !Doubles.isNaN(intersection(ray, tMinimum, tMaximum));
+	}
+	
+	public boolean isSampleable() {
+		return false;
+	}
+	
+	public double evaluatePDF(final Point3D referencePoint, final Point3D point) {
+		return 0.0D;
+	}
+	
+	public double getSurfaceArea() {
+		return 0.0D;
+	}
+	
 	public abstract double intersection(final Ray3D ray, final double tMinimum, final double tMaximum);
 	
+	public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum, final Hit hit) {
+		return intersection(ray, tMinimum, tMaximum);
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	public static Shape cone() {
@@ -203,6 +242,105 @@ public abstract class Shape {
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
+	private static Optional<SurfaceSample> doCreateSurfaceSample(final Point3D referencePoint, final Point3D point, final Vector3D surfaceNormal, final double probabilityDensityFunctionValueArea) {
+		final double probabilityDensityFunctionValue = doComputePDFSolidAngle(referencePoint, point, surfaceNormal, probabilityDensityFunctionValueArea);
+		
+		if(Doubles.isZero(probabilityDensityFunctionValue)) {
+			return Optional.empty();
+		}
+		
+		return Optional.of(new SurfaceSample(point, surfaceNormal, probabilityDensityFunctionValue));
+	}
+	
+	private static double doComputePDFSolidAngle(final Point3D referencePoint, final Point3D point, final Vector3D surfaceNormal, final double probabilityDensityFunctionValueArea) {
+		final Vector3D direction = Vector3D.direction(referencePoint, point);
+		
+		final double distanceSquared = direction.lengthSquared();
+		final double cosTheta = Doubles.abs(Vector3D.dotProduct(surfaceNormal, direction)) / Doubles.sqrt(distanceSquared);
+		
+		if(Doubles.isZero(cosTheta) || Doubles.isZero(distanceSquared)) {
+			return 0.0D;
+		}
+		
+		return probabilityDensityFunctionValueArea * distanceSquared / cosTheta;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static final class Hit {
+		private double u;
+		private double v;
+		private int index;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Hit() {
+			this.u = 0.0D;
+			this.v = 0.0D;
+			this.index = -1;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Hit copy() {
+			final
+			Hit hit = new Hit();
+			hit.set(this.index, this.u, this.v);
+			
+			return hit;
+		}
+		
+		public double getU() {
+			return this.u;
+		}
+		
+		public double getV() {
+			return this.v;
+		}
+		
+		public int getIndex() {
+			return this.index;
+		}
+		
+		public void set(final int index, final double u, final double v) {
+			this.u = u;
+			this.v = v;
+			this.index = index;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static final class SurfaceSample {
+		private final Point3D point;
+		private final Vector3D surfaceNormal;
+		private final double probabilityDensityFunctionValue;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public SurfaceSample(final Point3D point, final Vector3D surfaceNormal, final double probabilityDensityFunctionValue) {
+			this.point = Objects.requireNonNull(point, "point == null");
+			this.surfaceNormal = Objects.requireNonNull(surfaceNormal, "surfaceNormal == null");
+			this.probabilityDensityFunctionValue = probabilityDensityFunctionValue;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Point3D getPoint() {
+			return this.point;
+		}
+		
+		public Vector3D getSurfaceNormal() {
+			return this.surfaceNormal;
+		}
+		
+		public double getProbabilityDensityFunctionValue() {
+			return this.probabilityDensityFunctionValue;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
 	private static final class Cone extends Shape {
 		private final double phiMax;
 		private final double radius;
@@ -805,16 +943,30 @@ public abstract class Shape {
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	private static final class Polygon extends Shape {
+		private static final int TRIANGLE_COUNT_MAXIMUM = 2;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
 		private final Point2D[] point2Ds;
 		private final Point3D[] point3Ds;
 		private final Vector3D n;
+		private final Vector3D u;
+		private final Vector3D v;
+		private final double[] bounds;
+		private final int[] triangles;
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
-		private Polygon(final Point2D[] point2Ds, final Point3D[] point3Ds, final Vector3D n) {
+		private Polygon(final Point2D[] point2Ds, final Point3D[] point3Ds, final Vector3D n, final Vector3D u, final Vector3D v) {
 			this.point2Ds = Arrays.requireNonNull(point2Ds, "point2Ds");
 			this.point3Ds = Arrays.requireNonNull(point3Ds, "point3Ds");
 			this.n = Objects.requireNonNull(n, "n == null");
+			this.u = Objects.requireNonNull(u, "u == null");
+			this.v = Objects.requireNonNull(v, "v == null");
+			this.triangles = doTriangulate(point2Ds);
+			this.bounds = new double[this.triangles.length / 3 * 16];
+			
+			doBuild(0, 0, this.triangles.length / 3);
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -862,47 +1014,64 @@ public abstract class Shape {
 		
 		@Override
 		public boolean contains(final Point3D p) {
+			final Point2D q = Point2D.project(this.point3Ds[0], p, this.u, this.v);
+			
+			return doContains(0, 0, this.triangles.length / 3, q.x, q.y);
+		}
+		
+		@Override
+		public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
 			final Point3D a = this.point3Ds[0];
-			final Point3D b = this.point3Ds[1];
+			final Point3D o = ray.getOrigin();
 			
-			final Vector3D w = this.n;
-			final Vector3D u = Vector3D.directionNormalized(a, b);
-			final Vector3D v = Vector3D.crossProduct(w, u);
+			final Vector3D d = ray.getDirection();
+			final Vector3D n = this.n;
 			
-			final Point2D q = Point2D.project(a, p, u, v);
+			final double nDotD = Vector3D.dotProduct(n, d);
 			
-			/*
-			 * Check whether q is contained inside the polygon in 2D:
-			 */
+			if(Doubles.isZero(nDotD)) {
+				return Doubles.NaN;
+			}
 			
-			boolean isInside = false;
+			final double t = Vector3D.dotProduct(Vector3D.direction(o, a), n) / nDotD;
 			
-			for(int i = 0, j = this.point2Ds.length - 1; i < this.point2Ds.length; j = i++) {
-				final Point2D pI = this.point2Ds[i];
-				final Point2D pJ = this.point2Ds[j];
-				
-				if((pI.y > p.y) != (pJ.y > p.y) && p.x < (pJ.x - pI.x) * (p.y - pI.y) / (pJ.y - pI.y) + pI.x) {
-					isInside = !isInside;
-				}
+			if(t > tMinimum && t < tMaximum && contains(Point3D.add(o, d, t))) {
+				return t;
 			}
 			
-			if(isInside) {
-				return true;
+			return Doubles.NaN;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private boolean doContains(final int node, final int start, final int end, final double qX, final double qY) {
+			final double[] bounds = this.bounds;
+			
+			final int offset = node * 4;
+			
+			if(qX < bounds[offset + 0] || qY < bounds[offset + 1] || qX > bounds[offset + 2] || qY > bounds[offset + 3]) {
+				return false;
 			}
 			
-			/*
-			 * Check whether q is contained on the line segments of the polygon in 2D:
-			 */
+			if(end - start > TRIANGLE_COUNT_MAXIMUM) {
+				final int middle = (start + end) / 2;
+				
+				return doContains(node * 2 + 1, start, middle, qX, qY) || doContains(node * 2 + 2, middle, end, qX, qY);
+			}
 			
-			for(int i = 0, j = 1; i < this.point2Ds.length; i++, j = (j + 1) % this.point2Ds.length) {
-				final Point2D pI = this.point2Ds[i];
-				final Point2D pJ = this.point2Ds[j];
+			for(int i = start; i < end; i++) {
+				final Point2D a = this.point2Ds[this.triangles[i * 3 + 0]];
+				final Point2D b = this.point2Ds[this.triangles[i * 3 + 1]];
+				final Point2D c = this.point2Ds[this.triangles[i * 3 + 2]];
 				
-				if(!Doubles.isZero((q.x - pI.x) * (pJ.y - pI.y) - (q.y - pI.y) * (pJ.x - pI.x))) {
-					continue;
-				} else if(Doubles.abs(pJ.x - pI.x) >= Doubles.abs(pJ.y - pI.y) && pJ.x - pI.x > 0.0D ? pI.x <= q.x && q.x <= pJ.x : pJ.x <= q.x && q.x <= pI.x) {
-					return true;
-				} else if(Doubles.abs(pJ.x - pI.x) <  Doubles.abs(pJ.y - pI.y) && pJ.y - pI.y > 0.0D ? pI.y <= q.y && q.y <= pJ.y : pJ.y <= q.y && q.y <= pI.y) {
+				final double aX = a.x - qX;
+				final double aY = a.y - qY;
+				final double bX = b.x - qX;
+				final double bY = b.y - qY;
+				final double cX = c.x - qX;
+				final double cY = c.y - qY;
+				
+				if(aX * bY - aY * bX >= 0.0D && bX * cY - bY * cX >= 0.0D && cX * aY - cY * aX >= 0.0D) {
 					return true;
 				}
 			}
@@ -910,27 +1079,58 @@ public abstract class Shape {
 			return false;
 		}
 		
-		@Override
-		public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
-			final Point3D a = this.point3Ds[0];
-			final Point3D o = ray.getOrigin();
+		private void doBuild(final int node, final int start, final int end) {
+			final Point2D[] point2Ds = this.point2Ds;
 			
-			final Vector3D d = ray.getDirection();
-			final Vector3D n = this.n;
+			final double[] bounds = this.bounds;
 			
-			final double nDotD = Vector3D.dotProduct(n, d);
+			final int[] triangles = this.triangles;
 			
-			if(Doubles.isZero(nDotD)) {
-				return Doubles.NaN;
+			final int offset = node * 4;
+			
+			bounds[offset + 0] = Doubles.MAX_VALUE;
+			bounds[offset + 1] = Doubles.MAX_VALUE;
+			bounds[offset + 2] = Doubles.MIN_VALUE;
+			bounds[offset + 3] = Doubles.MIN_VALUE;
+			
+			for(int i = start * 3; i < end * 3; i++) {
+				final Point2D point2D = point2Ds[triangles[i]];
+				
+				bounds[offset + 0] = Doubles.min(bounds[offset + 0], point2D.x);
+				bounds[offset + 1] = Doubles.min(bounds[offset + 1], point2D.y);
+				bounds[offset + 2] = Doubles.max(bounds[offset + 2], point2D.x);
+				bounds[offset + 3] = Doubles.max(bounds[offset + 3], point2D.y);
 			}
 			
-			final double t = Vector3D.dotProduct(Vector3D.direction(o, a), n) / nDotD;
+			if(end - start <= TRIANGLE_COUNT_MAXIMUM) {
+				return;
+			}
 			
-			if(t > tMinimum && t < tMaximum && contains(Point3D.add(o, d, t))) {
-				return t;
+			final boolean isX = bounds[offset + 2] - bounds[offset + 0] >= bounds[offset + 3] - bounds[offset + 1];
+			
+			final int[] order = IntStream.range(start, end).boxed().sorted(Comparator.comparingDouble(i -> doGetCentroid(i, isX))).mapToInt(Integer::intValue).toArray();
+			final int[] trianglesSorted = new int[order.length * 3];
+			
+			for(int i = 0; i < order.length; i++) {
+				trianglesSorted[i * 3 + 0] = triangles[order[i] * 3 + 0];
+				trianglesSorted[i * 3 + 1] = triangles[order[i] * 3 + 1];
+				trianglesSorted[i * 3 + 2] = triangles[order[i] * 3 + 2];
 			}
 			
-			return Doubles.NaN;
+			System.arraycopy(trianglesSorted, 0, triangles, start * 3, trianglesSorted.length);
+			
+			final int middle = (start + end) / 2;
+			
+			doBuild(node * 2 + 1, start, middle);
+			doBuild(node * 2 + 2, middle, end);
+		}
+		
+		private double doGetCentroid(final int triangle, final boolean isX) {
+			final Point2D a = this.point2Ds[this.triangles[triangle * 3 + 0]];
+			final Point2D b = this.point2Ds[this.triangles[triangle * 3 + 1]];
+			final Point2D c = this.point2Ds[this.triangles[triangle * 3 + 2]];
+			
+			return isX ? a.x + b.x + c.x : a.y + b.y + c.y;
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -939,21 +1139,18 @@ public abstract class Shape {
 			final Point3D[] point3Ds = doRequireValidPoints(points);
 			
 			final Vector3D n = Vector3D.normalNormalized(point3Ds[0], point3Ds[1], point3Ds[2]);
+			final Vector3D u = Vector3D.directionNormalized(point3Ds[0], point3Ds[1]);
+			final Vector3D v = Vector3D.crossProduct(n, u);
 			
-			final Point2D[] point2Ds = doCreateProjectedPoints(point3Ds, n);
+			final Point2D[] point2Ds = doCreateProjectedPoints(point3Ds, u, v);
 			
-			return new Polygon(point2Ds, point3Ds, n);
+			return new Polygon(point2Ds, point3Ds, n, u, v);
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
-		private static Point2D[] doCreateProjectedPoints(final Point3D[] points, final Vector3D n) {
+		private static Point2D[] doCreateProjectedPoints(final Point3D[] points, final Vector3D u, final Vector3D v) {
 			final Point3D a = points[0];
-			final Point3D b = points[1];
-			
-			final Vector3D w = n;
-			final Vector3D u = Vector3D.directionNormalized(a, b);
-			final Vector3D v = Vector3D.crossProduct(w, u);
 			
 			final Point2D[] point2Ds = new Point2D[points.length];
 			
@@ -975,6 +1172,86 @@ public abstract class Shape {
 			
 			throw new IllegalArgumentException("The provided Point3D instances are not coplanar.");
 		}
+		
+		private static boolean doIsEar(final Point2D[] points, final int[] nexts, final int previous, final int current, final int next, final double sign) {
+			final Point2D a = points[previous];
+			final Point2D b = points[current];
+			final Point2D c = points[next];
+			
+			if(doOrient(a, b, c) * sign <= 0.0D) {
+				return false;
+			}
+			
+			for(int i = nexts[next]; i != previous; i = nexts[i]) {
+				final Point2D p = points[i];
+				
+				if(p.equals(a) || p.equals(b) || p.equals(c)) {
+					continue;
+				}
+				
+				if(doOrient(a, b, p) * sign >= 0.0D && doOrient(b, c, p) * sign >= 0.0D && doOrient(c, a, p) * sign >= 0.0D) {
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		private static double doOrient(final Point2D a, final Point2D b, final Point2D c) {
+			return (b.x - a.x) * (c.y - a.y) - (b.y - a.y) * (c.x - a.x);
+		}
+		
+		private static int[] doTriangulate(final Point2D[] points) {
+			final int[] nexts = new int[points.length];
+			final int[] previouses = new int[points.length];
+			final int[] triangles = new int[(points.length - 2) * 3];
+			
+			double area = 0.0D;
+			
+			for(int i = 0, j = points.length - 1; i < points.length; j = i++) {
+				area += points[j].x * points[i].y - points[i].x * points[j].y;
+				
+				nexts[j] = i;
+				previouses[i] = j;
+			}
+			
+			final double sign = area < 0.0D ? -1.0D : 1.0D;
+			
+			int attempts = 0;
+			int current = 0;
+			int remaining = points.length;
+			int triangle = 0;
+			
+			while(true) {
+				final int previous = previouses[current];
+				final int next = nexts[current];
+				
+				if(remaining > 3 && attempts < remaining && !doIsEar(points, nexts, previous, current, next, sign)) {
+					attempts++;
+					
+					current = next;
+					
+					continue;
+				}
+				
+				triangles[triangle * 3 + 0] = previous;
+				triangles[triangle * 3 + 1] = sign > 0.0D ? current : next;
+				triangles[triangle * 3 + 2] = sign > 0.0D ? next : current;
+				
+				triangle++;
+				
+				if(--remaining < 3) {
+					return triangles;
+				}
+				
+				nexts[previous] = next;
+				previouses[next] = previous;
+				
+				attempts = 0;
+				
+				current = nexts[next];
+			}
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1003,6 +1280,21 @@ public abstract class Shape {
 			return AxisAlignedBoundingBox3D.fromPoints(this.a, this.b, this.c, this.d);
 		}
 		
+		@Override
+		public Optional<Vector3D> getSurfaceNormal() {
+			return Optional.of(this.n);
+		}
+		
+		@Override
+		public Optional<SurfaceSample> sample(final Point3D referencePoint, final Point2D sample) {
+			final Vector3D directionAB = Vector3D.direction(this.a, this.b);
+			final Vector3D directionBC = Vector3D.direction(this.b, this.c);
+			
+			final Point3D point = Point3D.add(Point3D.add(this.a, directionAB, sample.x), directionBC, sample.y);
+			
+			return doCreateSurfaceSample(referencePoint, point, this.n, 1.0D / getSurfaceArea());
+		}
+		
 		@Override
 		public OrthonormalBasis33D computeOrthonormalBasis(final Ray3D ray, final double t) {
 			return new OrthonormalBasis33D(this.n);
@@ -1052,6 +1344,21 @@ public abstract class Shape {
 			return doContains(p);
 		}
 		
+		@Override
+		public boolean isSampleable() {
+			return true;
+		}
+		
+		@Override
+		public double evaluatePDF(final Point3D referencePoint, final Point3D point) {
+			return doComputePDFSolidAngle(referencePoint, point, this.n, 1.0D / getSurfaceArea());
+		}
+		
+		@Override
+		public double getSurfaceArea() {
+			return Vector3D.crossProduct(Vector3D.direction(this.a, this.b), Vector3D.direction(this.b, this.c)).length();
+		}
+		
 		@Override
 		public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
 			final Point3D a = this.a;
@@ -1253,6 +1560,10 @@ public abstract class Shape {
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	private static final class Sphere extends Shape {
+		private static final double SIN_THETA_SQUARED_SMALL_ANGLE = 0.00068523D;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
 		private final Point3D center;
 		private final double radius;
 		
@@ -1270,6 +1581,45 @@ public abstract class Shape {
 			return new BoundingSphere3D(this.radius, this.center);
 		}
 		
+		@Override
+		public Optional<SurfaceSample> sample(final Point3D referencePoint, final Point2D sample) {
+			final Point3D center = this.center;
+			
+			final double radius = this.radius;
+			final double radiusSquared = radius * radius;
+			
+			final double distanceSquared = Point3D.distanceSquared(referencePoint, center);
+			
+			if(distanceSquared <= radiusSquared) {
+				final Vector3D surfaceNormal = Vector3D.sampleSphereUniformDistribution(sample);
+				
+				final Point3D point = Point3D.add(center, surfaceNormal, radius);
+				
+				return doCreateSurfaceSample(referencePoint, point, surfaceNormal, 1.0D / (4.0D * Doubles.PI * radiusSquared));
+			}
+			
+			final double sinThetaMaxSquared = radiusSquared / distanceSquared;
+			final double sinThetaMax = Doubles.sqrt(sinThetaMaxSquared);
+			final double cosThetaMax = Doubles.sqrt(Doubles.max(1.0D - sinThetaMaxSquared, 0.0D));
+			
+			final boolean isSmallAngle = sinThetaMaxSquared < SIN_THETA_SQUARED_SMALL_ANGLE;
+			
+			final double oneMinusCosThetaMax = doComputeOneMinusCosThetaMax(sinThetaMaxSquared);
+			final double sinThetaSquared = isSmallAngle ? sinThetaMaxSquared * sample.x : 1.0D - ((cosThetaMax - 1.0D) * sample.x + 1.0D) * ((cosThetaMax - 1.0D) * sample.x + 1.0D);
+			final double cosTheta = isSmallAngle ? Doubles.sqrt(1.0D - sinThetaSquared) : (cosThetaMax - 1.0D) * sample.x + 1.0D;
+			final double cosAlpha = sinThetaSquared / sinThetaMax + cosTheta * Doubles.sqrt(Doubles.max(1.0D - sinThetaSquared / sinThetaMaxSquared, 0.0D));
+			final double sinAlpha = Doubles.sqrt(Doubles.max(1.0D - cosAlpha * cosAlpha, 0.0D));
+			final double phi = sample.y * 2.0D * Doubles.PI;
+			
+			final OrthonormalBasis33D orthonormalBasis = new OrthonormalBasis33D(Vector3D.directionNormalized(center, referencePoint));
+			
+			final Vector3D surfaceNormal = Vector3D.normalize(orthonormalBasis.transform(Vector3D.directionSpherical(sinAlpha, cosAlpha, phi)));
+			
+			final Point3D point = Point3D.add(center, surfaceNormal, radius);
+			
+			return Optional.of(new SurfaceSample(point, surfaceNormal, 1.0D / (2.0D * Doubles.PI * oneMinusCosThetaMax)));
+		}
+		
 		@Override
 		public OrthonormalBasis33D computeOrthonormalBasis(final Ray3D ray, final double t) {
 			final Point3D p = Point3D.add(ray.getOrigin(), ray.getDirection(), t);
@@ -1297,6 +1647,29 @@ public abstract class Shape {
 			return Point3D.distanceSquared(this.center, p) <= this.radius * this.radius;
 		}
 		
+		@Override
+		public boolean isSampleable() {
+			return true;
+		}
+		
+		@Override
+		public double evaluatePDF(final Point3D referencePoint, final Point3D point) {
+			final double radiusSquared = this.radius * this.radius;
+			
+			final double distanceSquared = Point3D.distanceSquared(referencePoint, this.center);
+			
+			if(distanceSquared <= radiusSquared) {
+				return doComputePDFSolidAngle(referencePoint, point, Vector3D.directionNormalized(this.center, point), 1.0D / (4.0D * Doubles.PI * radiusSquared));
+			}
+			
+			return 1.0D / (2.0D * Doubles.PI * doComputeOneMinusCosThetaMax(radiusSquared / distanceSquared));
+		}
+		
+		@Override
+		public double getSurfaceArea() {
+			return 4.0D * Doubles.PI * this.radius * this.radius;
+		}
+		
 		@Override
 		public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
 			final Point3D o = ray.getOrigin();
@@ -1323,6 +1696,12 @@ public abstract class Shape {
 			
 			return Doubles.NaN;
 		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static double doComputeOneMinusCosThetaMax(final double sinThetaMaxSquared) {
+			return sinThetaMaxSquared < SIN_THETA_SQUARED_SMALL_ANGLE ? sinThetaMaxSquared / 2.0D : 1.0D - Doubles.sqrt(Doubles.max(1.0D - sinThetaMaxSquared, 0.0D));
+		}
 	}
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1425,9 +1804,12 @@ public abstract class Shape {
 	////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	private static final class Triangle extends Shape {
+		private final OrthonormalBasis33D orthonormalBasis;
 		private final Point3D a;
 		private final Point3D b;
 		private final Point3D c;
+		private final Vector3D edgeAB;
+		private final Vector3D edgeAC;
 		private final Vector3D n;
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1436,7 +1818,10 @@ public abstract class Shape {
 			this.a = Objects.requireNonNull(a, "a == null");
 			this.b = Objects.requireNonNull(b, "b == null");
 			this.c = Objects.requireNonNull(c, "c == null");
+			this.edgeAB = Vector3D.direction(a, b);
+			this.edgeAC = Vector3D.direction(a, c);
 			this.n = Vector3D.normalNormalized(a, b, c);
+			this.orthonormalBasis = doCreateOrthonormalBasis(a, b, c, this.n);
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1448,49 +1833,32 @@ public abstract class Shape {
 		
 		@Override
 		public OrthonormalBasis33D computeOrthonormalBasis(final Ray3D ray, final double t) {
-			final Point2D pTA = new Point2D(0.5D, 0.0D);
-			final Point2D pTB = new Point2D(1.0D, 1.0D);
-			final Point2D pTC = new Point2D(0.0D, 1.0D);
-			
-			final Vector2D vTCA = Vector2D.direction(pTC, pTA);
-			final Vector2D vTCB = Vector2D.direction(pTC, pTB);
-			
-			final Point3D pPA = this.a;
-			final Point3D pPB = this.b;
-			final Point3D pPC = this.c;
-			
-			final Vector3D vPCA = Vector3D.direction(pPC, pPA);
-			final Vector3D vPCB = Vector3D.direction(pPC, pPB);
-			
-			final Vector3D w = this.n;
-			
-			final double determinant = Vector2D.crossProduct(vTCA, vTCB);
-			
-			if(Doubles.isZero(determinant)) {
-				return new OrthonormalBasis33D(w);
-			}
-			
-			final double determinantReciprocal = 1.0D / determinant;
-			
-			final double x = (-vTCB.x * vPCA.x + vTCA.x * vPCB.x) * determinantReciprocal;
-			final double y = (-vTCB.x * vPCA.y + vTCA.x * vPCB.y) * determinantReciprocal;
-			final double z = (-vTCB.x * vPCA.z + vTCA.x * vPCB.z) * determinantReciprocal;
-			
-			final Vector3D v = new Vector3D(x, y, z);
-			
-			return new OrthonormalBasis33D(w, v);
+			return this.orthonormalBasis;
 		}
 		
 		@Override
 		public Point2D computeTextureCoordinates(final Ray3D ray, final double t) {
-			final Point3D pBC = doCreateBarycentricCoordinates(ray);
+			return computeTextureCoordinates(ray, t, new Hit());
+		}
+		
+		@Override
+		public Point2D computeTextureCoordinates(final Ray3D ray, final double t, final Hit hit) {
+			final Hit hitTriangle = doFindHit(ray, t, hit);
+			
+			if(hitTriangle.getIndex() == -1) {
+				return new Point2D();
+			}
 			
 			final Point2D pTA = new Point2D(0.5D, 0.0D);
 			final Point2D pTB = new Point2D(1.0D, 1.0D);
 			final Point2D pTC = new Point2D(0.0D, 1.0D);
 			
-			final double u = pTA.x * pBC.x + pTB.x * pBC.y + pTC.x * pBC.z;
-			final double v = pTA.y * pBC.x + pTB.y * pBC.y + pTC.y * pBC.z;
+			final double barycentricU = hitTriangle.getU();
+			final double barycentricV = hitTriangle.getV();
+			final double barycentricW = 1.0D - barycentricU - barycentricV;
+			
+			final double u = pTA.x * barycentricW + pTB.x * barycentricU + pTC.x * barycentricV;
+			final double v = pTA.y * barycentricW + pTB.y * barycentricU + pTC.y * barycentricV;
 			
 			return new Point2D(u, v);
 		}
@@ -1504,9 +1872,9 @@ public abstract class Shape {
 			if(Point3D.coplanar(a, b, c, p)) {
 				final Vector3D n = this.n;
 				
-				final Vector3D edgeAB = Vector3D.direction(a, b);
+				final Vector3D edgeAB = this.edgeAB;
 				final Vector3D edgeBC = Vector3D.direction(b, c);
-				final Vector3D edgeCA = Vector3D.direction(c, a);
+				final Vector3D edgeCA = Vector3D.negate(this.edgeAC);
 				
 				final Vector3D edgeAP = Vector3D.direction(a, p);
 				final Vector3D edgeBP = Vector3D.direction(b, p);
@@ -1525,76 +1893,172 @@ public abstract class Shape {
 		
 		@Override
 		public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+			return intersection(ray, tMinimum, tMaximum, new Hit());
+		}
+		
+		@Override
+		public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum, final Hit hit) {
 			final Point3D a = this.a;
 			final Point3D b = this.b;
 			final Point3D c = this.c;
-			
-			final Vector3D v0 = Vector3D.direction(a, b);
-			final Vector3D v1 = Vector3D.direction(c, a);
-			final Vector3D v2 = ray.getDirection();
-			final Vector3D v3 = Vector3D.crossProduct(v0, v1);
-			
-			final double determinant = Vector3D.dotProduct(v2, v3);
-			final double determinantReciprocal = 1.0D / determinant;
-			
 			final Point3D o = ray.getOrigin();
 			
-			final Vector3D v4 = Vector3D.direction(o, a);
+			final Vector3D d = ray.getDirection();
 			
-			final double t = Vector3D.dotProduct(v3, v4) * determinantReciprocal;
+			final double dAbsX = Doubles.abs(d.x);
+			final double dAbsY = Doubles.abs(d.y);
+			final double dAbsZ = Doubles.abs(d.z);
+			
+			final double aOX = a.x - o.x;
+			final double aOY = a.y - o.y;
+			final double aOZ = a.z - o.z;
+			final double bOX = b.x - o.x;
+			final double bOY = b.y - o.y;
+			final double bOZ = b.z - o.z;
+			final double cOX = c.x - o.x;
+			final double cOY = c.y - o.y;
+			final double cOZ = c.z - o.z;
+			
+			double aX;
+			double aY;
+			double aZ;
+			double bX;
+			double bY;
+			double bZ;
+			double cX;
+			double cY;
+			double cZ;
+			double sZ;
+			
+			if(dAbsX > dAbsY && dAbsX > dAbsZ) {
+				sZ = 1.0D / d.x;
+				
+				final double sX = d.y * sZ;
+				final double sY = d.z * sZ;
+				
+				aX = aOY - sX * aOX;
+				aY = aOZ - sY * aOX;
+				aZ = aOX;
+				bX = bOY - sX * bOX;
+				bY = bOZ - sY * bOX;
+				bZ = bOX;
+				cX = cOY - sX * cOX;
+				cY = cOZ - sY * cOX;
+				cZ = cOX;
+			} else if(dAbsY > dAbsZ) {
+				sZ = 1.0D / d.y;
+				
+				final double sX = d.z * sZ;
+				final double sY = d.x * sZ;
+				
+				aX = aOZ - sX * aOY;
+				aY = aOX - sY * aOY;
+				aZ = aOY;
+				bX = bOZ - sX * bOY;
+				bY = bOX - sY * bOY;
+				bZ = bOY;
+				cX = cOZ - sX * cOY;
+				cY = cOX - sY * cOY;
+				cZ = cOY;
+			} else {
+				sZ = 1.0D / d.z;
+				
+				final double sX = d.x * sZ;
+				final double sY = d.y * sZ;
+				
+				aX = aOX - sX * aOZ;
+				aY = aOY - sY * aOZ;
+				aZ = aOZ;
+				bX = bOX - sX * bOZ;
+				bY = bOY - sY * bOZ;
+				bZ = bOZ;
+				cX = cOX - sX * cOZ;
+				cY = cOY - sY * cOZ;
+				cZ = cOZ;
+			}
 			
-			if(t <= tMinimum || t >= tMaximum) {
+			final double e0 = bX * cY - bY * cX;
+			final double e1 = cX * aY - cY * aX;
+			
+			if(e0 < 0.0D && e1 > 0.0D || e0 > 0.0D && e1 < 0.0D) {
 				return Doubles.NaN;
 			}
 			
-			final Vector3D v5 = Vector3D.crossProduct(v4, v2);
+			final double e2 = aX * bY - aY * bX;
 			
-			final double uDot = Vector3D.dotProduct(v5, v1);
-			final double u = uDot * determinantReciprocal;
-			
-			if(u < 0.0D) {
+			if((e0 < 0.0D || e1 < 0.0D || e2 < 0.0D) && (e0 > 0.0D || e1 > 0.0D || e2 > 0.0D)) {
 				return Doubles.NaN;
 			}
 			
-			final double vDot = Vector3D.dotProduct(v5, v0);
-			final double v = vDot * determinantReciprocal;
+			final double determinant = e0 + e1 + e2;
 			
-			if(v < 0.0D) {
+			if(determinant == 0.0D) {
 				return Doubles.NaN;
 			}
 			
-			if((uDot + vDot) * determinant > determinant * determinant) {
+			final double determinantReciprocal = 1.0D / determinant;
+			
+			final double t = (e0 * aZ + e1 * bZ + e2 * cZ) * sZ * determinantReciprocal;
+			
+			if(t <= tMinimum || t >= tMaximum) {
 				return Doubles.NaN;
 			}
 			
+			hit.set(0, e1 * determinantReciprocal, e2 * determinantReciprocal);
+			
 			return t;
 		}
 		
 		////////////////////////////////////////////////////////////////////////////////////////////////////
 		
-		private Point3D doCreateBarycentricCoordinates(final Ray3D ray) {
-			final Point3D a = this.a;
-			final Point3D b = this.b;
-			final Point3D c = this.c;
+		private Hit doFindHit(final Ray3D ray, final double t, final Hit hit) {
+			if(hit.getIndex() != -1) {
+				return hit;
+			}
 			
-			final Vector3D v0 = Vector3D.direction(a, b);
-			final Vector3D v1 = Vector3D.direction(c, a);
-			final Vector3D v2 = ray.getDirection();
-			final Vector3D v3 = Vector3D.crossProduct(v0, v1);
+			final double delta = Doubles.max(Doubles.abs(t), 1.0D) * 1.0e-6D;
 			
-			final double determinant = Vector3D.dotProduct(v2, v3);
-			final double determinantReciprocal = 1.0D / determinant;
+			final Hit hitTriangle = new Hit();
 			
-			final Point3D o = ray.getOrigin();
+			intersection(ray, t - delta, t + delta, hitTriangle);
+			
+			return hitTriangle;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static OrthonormalBasis33D doCreateOrthonormalBasis(final Point3D a, final Point3D b, final Point3D c, final Vector3D n) {
+			final Point2D pTA = new Point2D(0.5D, 0.0D);
+			final Point2D pTB = new Point2D(1.0D, 1.0D);
+			final Point2D pTC = new Point2D(0.0D, 1.0D);
+			
+			final Vector2D vTCA = Vector2D.direction(pTC, pTA);
+			final Vector2D vTCB = Vector2D.direction(pTC, pTB);
 			
-			final Vector3D v4 = Vector3D.direction(o, a);
-			final Vector3D v5 = Vector3D.crossProduct(v4, v2);
+			final Point3D pPA = a;
+			final Point3D pPB = b;
+			final Point3D pPC = c;
 			
-			final double u = Vector3D.dotProduct(v5, v1) * determinantReciprocal;
-			final double v = Vector3D.dotProduct(v5, v0) * determinantReciprocal;
-			final double w = 1.0D - u - v;
+			final Vector3D vPCA = Vector3D.direction(pPC, pPA);
+			final Vector3D vPCB = Vector3D.direction(pPC, pPB);
+			
+			final Vector3D w = n;
+			
+			final double determinant = Vector2D.crossProduct(vTCA, vTCB);
+			
+			if(Doubles.isZero(determinant)) {
+				return new OrthonormalBasis33D(w);
+			}
 			
-			return new Point3D(w, u, v);
+			final double determinantReciprocal = 1.0D / determinant;
+			
+			final double x = (-vTCB.x * vPCA.x + vTCA.x * vPCB.x) * determinantReciprocal;
+			final double y = (-vTCB.x * vPCA.y + vTCA.x * vPCB.y) * determinantReciprocal;
+			final double z = (-vTCB.x * vPCA.z + vTCA.x * vPCB.z) * determinantReciprocal;
+			
+			final Vector3D v = new Vector3D(x, y, z);
+			
+			return new OrthonormalBasis33D(w, v);
 		}
 	}
 }
\ No newline at end of file
@@ -32,6 +32,10 @@ import org.macroing.geo4j.common.Vector3D;
 import org.macroing.java.lang.Doubles;
 
 public interface Texture {
+	Texture BLACK = intersection -> Color3D.BLACK;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
 	Color3D compute(final Intersection intersection);
 	
 	////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -168,7 +172,7 @@ public interface Texture {
 	static Texture constant(final Color3D color) {
 		Objects.requireNonNull(color, "color == null");
 		
-		return intersection -> color;
+		return color.isBlack() ? BLACK : intersection -> color;
 	}
 	
 	static Texture constant(final double component) {
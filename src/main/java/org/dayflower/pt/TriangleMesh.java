@@ -0,0 +1,2106 @@
+/**
+ * Copyright 2022 - 2026 J&#246;rgen Lundgren
+ * 
+ * This file is part of org.dayflower.pt.
+ * 
+ * org.dayflower.pt is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * org.dayflower.pt is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with org.dayflower.pt. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dayflower.pt;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import org.macroing.geo4j.bv.BoundingVolume3D;
+import org.macroing.geo4j.bv.aabb.AxisAlignedBoundingBox3D;
+import org.macroing.geo4j.common.Point2D;
+import org.macroing.geo4j.common.Point3D;
+import org.macroing.geo4j.common.Vector2D;
+import org.macroing.geo4j.common.Vector3D;
+import org.macroing.geo4j.onb.OrthonormalBasis33D;
+import org.macroing.geo4j.ray.Ray3D;
+import org.macroing.java.lang.Doubles;
+import org.macroing.java.lang.Ints;
+
+public final class TriangleMesh extends Shape {
+	private static final String USAGE = "Usage: java org.dayflower.pt.TriangleMesh <input.obj|input.ply> <output.mesh>";
+	private static final double SLAB_SCALE = 1.0D + 2.0D * (3.0D * 0x1.0p-53D) / (1.0D - 3.0D * 0x1.0p-53D);
+	private static final int BIN_COUNT = 16;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int FLAG_NORMALS = 1;
+	private static final int FLAG_TEXTURE_COORDINATES = 2;
+	private static final int HEADER_SIZE = 32;
+	private static final int MAGIC = 0x4446544D;
+	private static final int TRIANGLE_COUNT_MAXIMUM = 4;
+	private static final int VERSION = 1;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private final BoundingVolume3D boundingVolume;
+	private final FloatBuffer bounds;
+	private final FloatBuffer normals;
+	private final FloatBuffer positions;
+	private final FloatBuffer textureCoordinates;
+	private final IntBuffer indices;
+	private final IntBuffer nodes;
+	private final ThreadLocal<Stack> stacks;
+	private final int depth;
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public TriangleMesh(final float[] positions, final float[] normals, final float[] textureCoordinates, final int[] indices) {
+		this(new Builder(Objects.requireNonNull(positions, "positions == null").clone(), Objects.requireNonNull(normals, "normals == null").clone(), Objects.requireNonNull(textureCoordinates, "textureCoordinates == null").clone(), Objects.requireNonNull(indices, "indices == null").clone()));
+	}
+	
+	private TriangleMesh(final Builder builder) {
+		this(FloatBuffer.wrap(builder.positions), FloatBuffer.wrap(builder.normals), FloatBuffer.wrap(builder.textureCoordinates), IntBuffer.wrap(builder.indices), FloatBuffer.wrap(builder.getBounds()), IntBuffer.wrap(Arrays.copyOf(builder.nodes, builder.nodeCount * 2)), builder.depth, builder.depth + 1);
+	}
+	
+	private TriangleMesh(final FloatBuffer positions, final FloatBuffer normals, final FloatBuffer textureCoordinates, final IntBuffer indices, final FloatBuffer bounds, final IntBuffer nodes, final int depth, final int stackCapacity) {
+		this.boundingVolume = nodes.capacity() > 0 ? new AxisAlignedBoundingBox3D(new Point3D(bounds.get(0), bounds.get(1), bounds.get(2)), new Point3D(bounds.get(3), bounds.get(4), bounds.get(5))) : new AxisAlignedBoundingBox3D(new Point3D(), new Point3D());
+		this.bounds = bounds;
+		this.normals = normals;
+		this.positions = positions;
+		this.textureCoordinates = textureCoordinates;
+		this.indices = indices;
+		this.nodes = nodes;
+		this.stacks = ThreadLocal.withInitial(() -> new Stack(stackCapacity));
+		this.depth = depth;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	@Override
+	public BoundingVolume3D getBoundingVolume() {
+		return this.boundingVolume;
+	}
+	
+	@Override
+	public OrthonormalBasis33D computeOrthonormalBasis(final Ray3D ray, final double t) {
+		return computeOrthonormalBasis(ray, t, new Hit());
+	}
+	
+	@Override
+	public OrthonormalBasis33D computeOrthonormalBasis(final Ray3D ray, final double t, final Hit hit) {
+		final Hit hitTriangle = doFindHit(ray, t, hit);
+		
+		final int triangle = hitTriangle.getIndex();
+		
+		if(triangle == -1) {
+			return new OrthonormalBasis33D();
+		}
+		
+		final int indexA = this.indices.get(triangle * 3 + 0);
+		final int indexB = this.indices.get(triangle * 3 + 1);
+		final int indexC = this.indices.get(triangle * 3 + 2);
+		
+		final Point3D pPA = doGetPosition(indexA);
+		final Point3D pPB = doGetPosition(indexB);
+		final Point3D pPC = doGetPosition(indexC);
+		
+		final Vector3D surfaceNormalG = Vector3D.normalNormalized(pPA, pPB, pPC);
+		final Vector3D surfaceNormalS = this.normals.capacity() > 0 ? doComputeSurfaceNormalS(indexA, indexB, indexC, hitTriangle.getU(), hitTriangle.getV()) : surfaceNormalG;
+		
+		final Vector3D w = Doubles.isZero(surfaceNormalS.lengthSquared()) ? surfaceNormalG : surfaceNormalS;
+		
+		final Point2D pTA = doGetTextureCoordinates(indexA, 0.5D, 0.0D);
+		final Point2D pTB = doGetTextureCoordinates(indexB, 1.0D, 1.0D);
+		final Point2D pTC = doGetTextureCoordinates(indexC, 0.0D, 1.0D);
+		
+		final Vector2D vTCA = Vector2D.direction(pTC, pTA);
+		final Vector2D vTCB = Vector2D.direction(pTC, pTB);
+		
+		final Vector3D vPCA = Vector3D.direction(pPC, pPA);
+		final Vector3D vPCB = Vector3D.direction(pPC, pPB);
+		
+		final double determinant = Vector2D.crossProduct(vTCA, vTCB);
+		
+		if(Doubles.isZero(determinant)) {
+			return new OrthonormalBasis33D(w);
+		}
+		
+		final double determinantReciprocal = 1.0D / determinant;
+		
+		final double x = (-vTCB.x * vPCA.x + vTCA.x * vPCB.x) * determinantReciprocal;
+		final double y = (-vTCB.x * vPCA.y + vTCA.x * vPCB.y) * determinantReciprocal;
+		final double z = (-vTCB.x * vPCA.z + vTCA.x * vPCB.z) * determinantReciprocal;
+		
+		final Vector3D v = new Vector3D(x, y, z);
+		
+		if(Doubles.isZero(Vector3D.crossProduct(w, v).lengthSquared())) {
+			return new OrthonormalBasis33D(w);
+		}
+		
+		return new OrthonormalBasis33D(w, v);
+	}
+	
+	@Override
+	public Point2D computeTextureCoordinates(final Ray3D ray, final double t) {
+		return computeTextureCoordinates(ray, t, new Hit());
+	}
+	
+	@Override
+	public Point2D computeTextureCoordinates(final Ray3D ray, final double t, final Hit hit) {
+		final Hit hitTriangle = doFindHit(ray, t, hit);
+		
+		final int triangle = hitTriangle.getIndex();
+		
+		if(triangle == -1) {
+			return new Point2D();
+		}
+		
+		final Point2D pTA = doGetTextureCoordinates(this.indices.get(triangle * 3 + 0), 0.5D, 0.0D);
+		final Point2D pTB = doGetTextureCoordinates(this.indices.get(triangle * 3 + 1), 1.0D, 1.0D);
+		final Point2D pTC = doGetTextureCoordinates(this.indices.get(triangle * 3 + 2), 0.0D, 1.0D);
+		
+		final double barycentricU = hitTriangle.getU();
+		final double barycentricV = hitTriangle.getV();
+		final double barycentricW = 1.0D - barycentricU - barycentricV;
+		
+		final double u = pTA.x * barycentricW + pTB.x * barycentricU + pTC.x * barycentricV;
+		final double v = pTA.y * barycentricW + pTB.y * barycentricU + pTC.y * barycentricV;
+		
+		return new Point2D(u, v);
+	}
+	
+	@Override
+	public boolean contains(final Point3D p) {
+		if(this.nodes.capacity() == 0) {
+			return false;
+		}
+		
+		final FloatBuffer bounds = this.bounds;
+		
+		final IntBuffer nodes = this.nodes;
+		final int[] indices = this.stacks.get().indices;
+		
+		int index = 0;
+		int size = 0;
+		
+		while(true) {
+			if(doContains(bounds, index * 6, p)) {
+				final int offset = nodes.get(index * 2 + 0);
+				final int count = nodes.get(index * 2 + 1);
+				
+				if(count > 0) {
+					for(int i = offset; i < offset + count; i++) {
+						if(doContainsTriangle(i, p)) {
+							return true;
+						}
+					}
+				} else {
+					indices[size++] = offset;
+					
+					index = index + 1;
+					
+					continue;
+				}
+			}
+			
+			if(size == 0) {
+				return false;
+			}
+			
+			index = indices[--size];
+		}
+	}
+	
+	@Override
+	public boolean intersects(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		if(this.nodes.capacity() == 0) {
+			return false;
+		}
+		
+		final Point3D o = ray.getOrigin();
+		
+		final Vector3D d = ray.getDirection();
+		
+		final double oX = o.x;
+		final double oY = o.y;
+		final double oZ = o.z;
+		final double dX = d.x;
+		final double dY = d.y;
+		final double dZ = d.z;
+		final double dRecX = 1.0D / dX;
+		final double dRecY = 1.0D / dY;
+		final double dRecZ = 1.0D / dZ;
+		
+		final double dAbsX = Doubles.abs(dX);
+		final double dAbsY = Doubles.abs(dY);
+		final double dAbsZ = Doubles.abs(dZ);
+		
+		final int kZ = dAbsX > dAbsY && dAbsX > dAbsZ ? 0 : dAbsY > dAbsZ ? 1 : 2;
+		final int kX = (kZ + 1) % 3;
+		final int kY = (kZ + 2) % 3;
+		
+		final double oKX = kX == 0 ? oX : kX == 1 ? oY : oZ;
+		final double oKY = kY == 0 ? oX : kY == 1 ? oY : oZ;
+		final double oKZ = kZ == 0 ? oX : kZ == 1 ? oY : oZ;
+		final double sZ = 1.0D / (kZ == 0 ? dX : kZ == 1 ? dY : dZ);
+		final double sX = (kX == 0 ? dX : kX == 1 ? dY : dZ) * sZ;
+		final double sY = (kY == 0 ? dX : kY == 1 ? dY : dZ) * sZ;
+		
+		final FloatBuffer bounds = this.bounds;
+		
+		final Stack stack = this.stacks.get();
+		
+		final IntBuffer nodes = this.nodes;
+		final int[] indices = stack.indices;
+		
+		int index = 0;
+		int size = 0;
+		
+		while(true) {
+			if(doIntersects(bounds, index * 6, oX, oY, oZ, dRecX, dRecY, dRecZ, tMaximum)) {
+				final int offset = nodes.get(index * 2 + 0);
+				final int count = nodes.get(index * 2 + 1);
+				
+				if(count > 0) {
+					for(int i = offset; i < offset + count; i++) {
+						if(!Doubles.isNaN(doIntersectionTriangle(i, kX, kY, kZ, oKX, oKY, oKZ, sX, sY, sZ, tMinimum, tMaximum, stack.hit))) {
+							return true;
+						}
+					}
+				} else {
+					indices[size++] = offset;
+					
+					index = index + 1;
+					
+					continue;
+				}
+			}
+			
+			if(size == 0) {
+				return false;
+			}
+			
+			index = indices[--size];
+		}
+	}
+	
+	@Override
+	public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum) {
+		return intersection(ray, tMinimum, tMaximum, new Hit());
+	}
+	
+	@Override
+	public double intersection(final Ray3D ray, final double tMinimum, final double tMaximum, final Hit hit) {
+		return doIntersection(ray, tMinimum, tMaximum, this.stacks.get().indices, hit);
+	}
+	
+	public int getTriangleCount() {
+		return this.indices.capacity() / 3;
+	}
+	
+	public int getVertexCount() {
+		return this.positions.capacity() / 3;
+	}
+	
+	public void write(final String filename) {
+		Objects.requireNonNull(filename, "filename == null");
+		
+		try(final FileChannel fileChannel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			
+			byteBuffer.putInt(MAGIC);
+			byteBuffer.putInt(VERSION);
+			byteBuffer.putInt((this.normals.capacity() > 0 ? FLAG_NORMALS : 0) | (this.textureCoordinates.capacity() > 0 ? FLAG_TEXTURE_COORDINATES : 0));
+			byteBuffer.putInt(getVertexCount());
+			byteBuffer.putInt(getTriangleCount());
+			byteBuffer.putInt(this.nodes.capacity() / 2);
+			byteBuffer.putInt(this.depth);
+			byteBuffer.putInt(0);
+			
+			doWrite(fileChannel, byteBuffer, this.positions);
+			doWrite(fileChannel, byteBuffer, this.normals);
+			doWrite(fileChannel, byteBuffer, this.textureCoordinates);
+			doWrite(fileChannel, byteBuffer, this.indices);
+			doWrite(fileChannel, byteBuffer, this.bounds);
+			doWrite(fileChannel, byteBuffer, this.nodes);
+			doWrite(fileChannel, byteBuffer);
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	public static TriangleMesh map(final String filename) {
+		Objects.requireNonNull(filename, "filename == null");
+		
+		try(final FileChannel fileChannel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			final ByteBuffer byteBuffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			
+			while(byteBuffer.hasRemaining()) {
+				if(fileChannel.read(byteBuffer) < 0) {
+					throw new IllegalArgumentException("The file " + filename + " is not a supported mesh.");
+				}
+			}
+			
+			byteBuffer.flip();
+			
+			if(byteBuffer.getInt() != MAGIC || byteBuffer.getInt() != VERSION) {
+				throw new IllegalArgumentException("The file " + filename + " is not a supported mesh.");
+			}
+			
+			final int flags = byteBuffer.getInt();
+			final int vertexCount = byteBuffer.getInt();
+			final int triangleCount = byteBuffer.getInt();
+			final int nodeCount = byteBuffer.getInt();
+			final int depth = byteBuffer.getInt();
+			
+			if((flags & ~(FLAG_NORMALS | FLAG_TEXTURE_COORDINATES)) != 0 || vertexCount < 0 || triangleCount < 0 || nodeCount < 0 || nodeCount > Ints.max(triangleCount * 2 - 1, 0) || (nodeCount == 0) != (triangleCount == 0) || depth < 0 || depth >= Ints.max(nodeCount, 1)) {
+				throw new IllegalArgumentException("The file " + filename + " has an invalid header.");
+			}
+			
+			final int normalCount = (flags & FLAG_NORMALS) != 0 ? vertexCount * 3 : 0;
+			final int textureCoordinateCount = (flags & FLAG_TEXTURE_COORDINATES) != 0 ? vertexCount * 2 : 0;
+			
+			final long positionsOffset = HEADER_SIZE;
+			final long normalsOffset = positionsOffset + vertexCount * 12L;
+			final long textureCoordinatesOffset = normalsOffset + normalCount * 4L;
+			final long indicesOffset = textureCoordinatesOffset + textureCoordinateCount * 4L;
+			final long boundsOffset = indicesOffset + triangleCount * 12L;
+			final long nodesOffset = boundsOffset + nodeCount * 24L;
+			final long size = nodesOffset + nodeCount * 8L;
+			
+			if(fileChannel.size() != size) {
+				throw new IllegalArgumentException("The file " + filename + " is " + fileChannel.size() + " bytes but its header requires " + size + " bytes.");
+			}
+			
+			final FloatBuffer positions = doMapFloatBuffer(fileChannel, positionsOffset, vertexCount * 3);
+			final FloatBuffer normals = doMapFloatBuffer(fileChannel, normalsOffset, normalCount);
+			final FloatBuffer textureCoordinates = doMapFloatBuffer(fileChannel, textureCoordinatesOffset, textureCoordinateCount);
+			final FloatBuffer bounds = doMapFloatBuffer(fileChannel, boundsOffset, nodeCount * 6);
+			
+			final IntBuffer indices = doMapIntBuffer(fileChannel, indicesOffset, triangleCount * 3);
+			final IntBuffer nodes = doMapIntBuffer(fileChannel, nodesOffset, nodeCount * 2);
+			
+			doRequireValidIndicesAndNodes(filename, indices, nodes, vertexCount, triangleCount);
+			
+			return new TriangleMesh(positions, normals, textureCoordinates, indices, bounds, nodes, depth, Ints.max(nodeCount, 1));
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public static TriangleMesh readOBJ(final String filename) {
+		Objects.requireNonNull(filename, "filename == null");
+		
+		try(final InputStream inputStream = new FileInputStream(filename)) {
+			return new OBJReader(inputStream).read();
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public static TriangleMesh readPLY(final String filename) {
+		Objects.requireNonNull(filename, "filename == null");
+		
+		try(final FileChannel fileChannel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			return new PLYReader(fileChannel, filename).read();
+		} catch(final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public static void main(final String[] args) {
+		if(args.length != 2) {
+			System.err.println(USAGE);
+			System.exit(2);
+			
+			return;
+		}
+		
+		final long currentTimeNanosA = System.nanoTime();
+		
+		final TriangleMesh triangleMesh = args[0].endsWith(".ply") ? readPLY(args[0]) : readOBJ(args[0]);
+		
+		final long currentTimeNanosB = System.nanoTime();
+		
+		triangleMesh.write(args[1]);
+		
+		final long currentTimeNanosC = System.nanoTime();
+		
+		final double seconds = (currentTimeNanosB - currentTimeNanosA) / 1.0e9D;
+		
+		System.out.println("Read " + triangleMesh.getTriangleCount() + " triangles and " + triangleMesh.getVertexCount() + " vertices from " + args[0] + " in " + (currentTimeNanosB - currentTimeNanosA) / 1000000L + " ms (" + String.format("%.1f", new File(args[0]).length() / seconds / 1.0e6D) + " MB/s, " + (long)(triangleMesh.getTriangleCount() / seconds) + " triangles/s).");
+		System.out.println("Wrote " + args[1] + " in " + (currentTimeNanosC - currentTimeNanosB) / 1000000L + " ms.");
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private Hit doFindHit(final Ray3D ray, final double t, final Hit hit) {
+		if(hit.getIndex() != -1) {
+			return hit;
+		}
+		
+		final double delta = Doubles.max(Doubles.abs(t), 1.0D) * 1.0e-6D;
+		
+		final Hit hitTriangle = new Hit();
+		
+		doIntersection(ray, t - delta, t + delta, this.stacks.get().indices, hitTriangle);
+		
+		return hitTriangle;
+	}
+	
+	private Point2D doGetTextureCoordinates(final int index, final double u, final double v) {
+		if(this.textureCoordinates.capacity() > 0) {
+			return new Point2D(this.textureCoordinates.get(index * 2 + 0), this.textureCoordinates.get(index * 2 + 1));
+		}
+		
+		return new Point2D(u, v);
+	}
+	
+	private Point3D doGetPosition(final int index) {
+		return new Point3D(this.positions.get(index * 3 + 0), this.positions.get(index * 3 + 1), this.positions.get(index * 3 + 2));
+	}
+	
+	private Vector3D doComputeSurfaceNormalS(final int indexA, final int indexB, final int indexC, final double barycentricU, final double barycentricV) {
+		final FloatBuffer normals = this.normals;
+		
+		final double barycentricW = 1.0D - barycentricU - barycentricV;
+		
+		final double x = normals.get(indexA * 3 + 0) * barycentricW + normals.get(indexB * 3 + 0) * barycentricU + normals.get(indexC * 3 + 0) * barycentricV;
+		final double y = normals.get(indexA * 3 + 1) * barycentricW + normals.get(indexB * 3 + 1) * barycentricU + normals.get(indexC * 3 + 1) * barycentricV;
+		final double z = normals.get(indexA * 3 + 2) * barycentricW + normals.get(indexB * 3 + 2) * barycentricU + normals.get(indexC * 3 + 2) * barycentricV;
+		
+		final Vector3D surfaceNormal = new Vector3D(x, y, z);
+		
+		return Doubles.isZero(surfaceNormal.lengthSquared()) ? surfaceNormal : Vector3D.normalize(surfaceNormal);
+	}
+	
+	private boolean doContainsTriangle(final int triangle, final Point3D p) {
+		final Point3D a = doGetPosition(this.indices.get(triangle * 3 + 0));
+		final Point3D b = doGetPosition(this.indices.get(triangle * 3 + 1));
+		final Point3D c = doGetPosition(this.indices.get(triangle * 3 + 2));
+		
+		if(Point3D.coplanar(a, b, c, p)) {
+			final Vector3D n = Vector3D.normalNormalized(a, b, c);
+			
+			final boolean isInsideA = Vector3D.tripleProduct(n, Vector3D.direction(a, b), Vector3D.direction(a, p)) > 0.0D;
+			final boolean isInsideB = Vector3D.tripleProduct(n, Vector3D.direction(b, c), Vector3D.direction(b, p)) > 0.0D;
+			final boolean isInsideC = Vector3D.tripleProduct(n, Vector3D.direction(c, a), Vector3D.direction(c, p)) > 0.0D;
+			
+			return isInsideA && isInsideB && isInsideC;
+		}
+		
+		return false;
+	}
+	
+	private double doIntersection(final Ray3D ray, final double tMinimum, final double tMaximum, final int[] indices, final Hit hit) {
+		if(this.nodes.capacity() == 0) {
+			return Doubles.NaN;
+		}
+		
+		final Point3D o = ray.getOrigin();
+		
+		final Vector3D d = ray.getDirection();
+		
+		final double oX = o.x;
+		final double oY = o.y;
+		final double oZ = o.z;
+		final double dX = d.x;
+		final double dY = d.y;
+		final double dZ = d.z;
+		final double dRecX = 1.0D / dX;
+		final double dRecY = 1.0D / dY;
+		final double dRecZ = 1.0D / dZ;
+		
+		final double dAbsX = Doubles.abs(dX);
+		final double dAbsY = Doubles.abs(dY);
+		final double dAbsZ = Doubles.abs(dZ);
+		
+		final int kZ = dAbsX > dAbsY && dAbsX > dAbsZ ? 0 : dAbsY > dAbsZ ? 1 : 2;
+		final int kX = (kZ + 1) % 3;
+		final int kY = (kZ + 2) % 3;
+		
+		final double oKX = kX == 0 ? oX : kX == 1 ? oY : oZ;
+		final double oKY = kY == 0 ? oX : kY == 1 ? oY : oZ;
+		final double oKZ = kZ == 0 ? oX : kZ == 1 ? oY : oZ;
+		final double sZ = 1.0D / (kZ == 0 ? dX : kZ == 1 ? dY : dZ);
+		final double sX = (kX == 0 ? dX : kX == 1 ? dY : dZ) * sZ;
+		final double sY = (kY == 0 ? dX : kY == 1 ? dY : dZ) * sZ;
+		
+		final boolean isNegativeX = dRecX < 0.0D;
+		final boolean isNegativeY = dRecY < 0.0D;
+		final boolean isNegativeZ = dRecZ < 0.0D;
+		
+		final FloatBuffer bounds = this.bounds;
+		
+		final IntBuffer nodes = this.nodes;
+		
+		double t = tMaximum;
+		
+		int index = 0;
+		int size = 0;
+		int triangle = -1;
+		
+		while(true) {
+			if(doIntersects(bounds, index * 6, oX, oY, oZ, dRecX, dRecY, dRecZ, t)) {
+				final int offset = nodes.get(index * 2 + 0);
+				final int count = nodes.get(index * 2 + 1);
+				
+				if(count > 0) {
+					for(int i = offset; i < offset + count; i++) {
+						final double tTriangle = doIntersectionTriangle(i, kX, kY, kZ, oKX, oKY, oKZ, sX, sY, sZ, tMinimum, t, hit);
+						
+						if(!Doubles.isNaN(tTriangle)) {
+							triangle = i;
+							
+							t = tTriangle;
+						}
+					}
+					
+					if(size == 0) {
+						break;
+					}
+					
+					index = indices[--size];
+				} else {
+					final int axis = -count - 1;
+					
+					final boolean isNegative = axis == 0 ? isNegativeX : axis == 1 ? isNegativeY : isNegativeZ;
+					
+					if(isNegative) {
+						indices[size++] = index + 1;
+						
+						index = offset;
+					} else {
+						indices[size++] = offset;
+						
+						index = index + 1;
+					}
+				}
+			} else {
+				if(size == 0) {
+					break;
+				}
+				
+				index = indices[--size];
+			}
+		}
+		
+		return triangle != -1 ? t : Doubles.NaN;
+	}
+	
+	private double doIntersectionTriangle(final int triangle, final int kX, final int kY, final int kZ, final double oX, final double oY, final double oZ, final double sX, final double sY, final double sZ, final double tMinimum, final double tMaximum, final Hit hit) {
+		final FloatBuffer positions = this.positions;
+		
+		final IntBuffer indices = this.indices;
+		
+		final int indexA = indices.get(triangle * 3 + 0) * 3;
+		final int indexB = indices.get(triangle * 3 + 1) * 3;
+		final int indexC = indices.get(triangle * 3 + 2) * 3;
+		
+		final double aZ = positions.get(indexA + kZ) - oZ;
+		final double bZ = positions.get(indexB + kZ) - oZ;
+		final double cZ = positions.get(indexC + kZ) - oZ;
+		
+		final double aX = positions.get(indexA + kX) - oX - sX * aZ;
+		final double aY = positions.get(indexA + kY) - oY - sY * aZ;
+		final double bX = positions.get(indexB + kX) - oX - sX * bZ;
+		final double bY = positions.get(indexB + kY) - oY - sY * bZ;
+		final double cX = positions.get(indexC + kX) - oX - sX * cZ;
+		final double cY = positions.get(indexC + kY) - oY - sY * cZ;
+		
+		final double e0 = bX * cY - bY * cX;
+		final double e1 = cX * aY - cY * aX;
+		
+		if(e0 < 0.0D && e1 > 0.0D || e0 > 0.0D && e1 < 0.0D) {
+			return Doubles.NaN;
+		}
+		
+		final double e2 = aX * bY - aY * bX;
+		
+		if((e0 < 0.0D || e1 < 0.0D || e2 < 0.0D) && (e0 > 0.0D || e1 > 0.0D || e2 > 0.0D)) {
+			return Doubles.NaN;
+		}
+		
+		final double determinant = e0 + e1 + e2;
+		
+		if(determinant == 0.0D) {
+			return Doubles.NaN;
+		}
+		
+		final double determinantReciprocal = 1.0D / determinant;
+		
+		final double t = (e0 * aZ + e1 * bZ + e2 * cZ) * sZ * determinantReciprocal;
+		
+		if(t <= tMinimum || t >= tMaximum) {
+			return Doubles.NaN;
+		}
+		
+		hit.set(triangle, e1 * determinantReciprocal, e2 * determinantReciprocal);
+		
+		return t;
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static FloatBuffer doMapFloatBuffer(final FileChannel fileChannel, final long position, final int count) throws IOException {
+		return fileChannel.map(MapMode.READ_ONLY, position, count * 4L).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+	}
+	
+	private static IntBuffer doMapIntBuffer(final FileChannel fileChannel, final long position, final int count) throws IOException {
+		return fileChannel.map(MapMode.READ_ONLY, position, count * 4L).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+	}
+	
+	private static boolean doContains(final FloatBuffer bounds, final int offset, final Point3D p) {
+		final double epsilon = 1.0e-6D;
+		
+		return p.x >= bounds.get(offset + 0) - epsilon && p.y >= bounds.get(offset + 1) - epsilon && p.z >= bounds.get(offset + 2) - epsilon && p.x <= bounds.get(offset + 3) + epsilon && p.y <= bounds.get(offset + 4) + epsilon && p.z <= bounds.get(offset + 5) + epsilon;
+	}
+	
+	private static boolean doIntersects(final FloatBuffer bounds, final int offset, final double oX, final double oY, final double oZ, final double dRecX, final double dRecY, final double dRecZ, final double tMaximum) {
+		final double tX0 = (bounds.get(offset + 0) - oX) * dRecX;
+		final double tX1 = (bounds.get(offset + 3) - oX) * dRecX;
+		final double tY0 = (bounds.get(offset + 1) - oY) * dRecY;
+		final double tY1 = (bounds.get(offset + 4) - oY) * dRecY;
+		final double tZ0 = (bounds.get(offset + 2) - oZ) * dRecZ;
+		final double tZ1 = (bounds.get(offset + 5) - oZ) * dRecZ;
+		
+		final double tXNear = tX0 < tX1 ? tX0 : tX1;
+		final double tXFar = (tX0 < tX1 ? tX1 : tX0) * SLAB_SCALE;
+		final double tYNear = tY0 < tY1 ? tY0 : tY1;
+		final double tYFar = (tY0 < tY1 ? tY1 : tY0) * SLAB_SCALE;
+		final double tZNear = tZ0 < tZ1 ? tZ0 : tZ1;
+		final double tZFar = (tZ0 < tZ1 ? tZ1 : tZ0) * SLAB_SCALE;
+		
+		double tNear = Doubles.MIN_VALUE;
+		double tFar = Doubles.MAX_VALUE;
+		
+		tNear = tXNear > tNear ? tXNear : tNear;
+		tNear = tYNear > tNear ? tYNear : tNear;
+		tNear = tZNear > tNear ? tZNear : tNear;
+		
+		tFar = tXFar < tFar ? tXFar : tFar;
+		tFar = tYFar < tFar ? tYFar : tFar;
+		tFar = tZFar < tFar ? tZFar : tFar;
+		
+		return tNear <= tFar && tFar >= 0.0D && tNear <= tMaximum;
+	}
+	
+	private static void doRequireValidIndicesAndNodes(final String filename, final IntBuffer indices, final IntBuffer nodes, final int vertexCount, final int triangleCount) {
+		for(int i = 0; i < indices.capacity(); i++) {
+			final int index = indices.get(i);
+			
+			if(index < 0 || index >= vertexCount) {
+				throw new IllegalArgumentException("The file " + filename + " has an index out of range at " + i + ": " + index);
+			}
+		}
+		
+		final int nodeCount = nodes.capacity() / 2;
+		
+		for(int index = 0; index < nodeCount; index++) {
+			final int offset = nodes.get(index * 2 + 0);
+			final int count = nodes.get(index * 2 + 1);
+			
+			final boolean isValid = count > 0 ? offset >= 0 && offset <= triangleCount - count : count < 0 && count >= -3 && offset > index + 1 && offset < nodeCount;
+			
+			if(!isValid) {
+				throw new IllegalArgumentException("The file " + filename + " has an invalid node at " + index + ": " + offset + ", " + count);
+			}
+		}
+	}
+	
+	private static void doWrite(final FileChannel fileChannel, final ByteBuffer byteBuffer) throws IOException {
+		byteBuffer.flip();
+		
+		while(byteBuffer.hasRemaining()) {
+			fileChannel.write(byteBuffer);
+		}
+		
+		byteBuffer.clear();
+	}
+	
+	private static void doWrite(final FileChannel fileChannel, final ByteBuffer byteBuffer, final FloatBuffer floatBuffer) throws IOException {
+		for(int i = 0; i < floatBuffer.capacity(); i++) {
+			if(byteBuffer.remaining() < 4) {
+				doWrite(fileChannel, byteBuffer);
+			}
+			
+			byteBuffer.putFloat(floatBuffer.get(i));
+		}
+	}
+	
+	private static void doWrite(final FileChannel fileChannel, final ByteBuffer byteBuffer, final IntBuffer intBuffer) throws IOException {
+		for(int i = 0; i < intBuffer.capacity(); i++) {
+			if(byteBuffer.remaining() < 4) {
+				doWrite(fileChannel, byteBuffer);
+			}
+			
+			byteBuffer.putInt(intBuffer.get(i));
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Builder {
+		private final double[] binBounds;
+		private final double[] centroids;
+		private final double[] triangleBounds;
+		private final float[] normals;
+		private final float[] positions;
+		private final float[] textureCoordinates;
+		private final int[] binCounts;
+		private final int[] order;
+		private double[] bounds;
+		private int[] indices;
+		private int[] nodes;
+		private int depth;
+		private int nodeCount;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Builder(final float[] positions, final float[] normals, final float[] textureCoordinates, final int[] indices) {
+			final int vertexCount = positions.length / 3;
+			final int triangleCount = indices.length / 3;
+			
+			if(positions.length % 3 != 0) {
+				throw new IllegalArgumentException("positions.length % 3 != 0");
+			}
+			
+			if(normals.length != 0 && normals.length != positions.length) {
+				throw new IllegalArgumentException("normals.length != 0 && normals.length != positions.length");
+			}
+			
+			if(textureCoordinates.length != 0 && textureCoordinates.length != vertexCount * 2) {
+				throw new IllegalArgumentException("textureCoordinates.length != 0 && textureCoordinates.length != positions.length / 3 * 2");
+			}
+			
+			if(indices.length % 3 != 0) {
+				throw new IllegalArgumentException("indices.length % 3 != 0");
+			}
+			
+			for(int i = 0; i < indices.length; i++) {
+				if(indices[i] < 0 || indices[i] >= vertexCount) {
+					throw new IllegalArgumentException("indices[" + i + "] is out of range: " + indices[i]);
+				}
+			}
+			
+			this.binBounds = new double[BIN_COUNT * 6];
+			this.centroids = new double[triangleCount * 3];
+			this.triangleBounds = new double[triangleCount * 6];
+			this.normals = normals;
+			this.positions = positions;
+			this.textureCoordinates = textureCoordinates;
+			this.binCounts = new int[BIN_COUNT];
+			this.order = new int[triangleCount];
+			this.bounds = new double[Ints.max(triangleCount, 1) * 6];
+			this.indices = indices;
+			this.nodes = new int[Ints.max(triangleCount, 1) * 2];
+			this.depth = 0;
+			this.nodeCount = 0;
+			
+			for(int i = 0; i < triangleCount; i++) {
+				doReset(this.triangleBounds, i * 6);
+				
+				for(int j = 0; j < 3; j++) {
+					doUnionPoint(this.triangleBounds, i * 6, positions, indices[i * 3 + j] * 3);
+				}
+				
+				this.centroids[i * 3 + 0] = (this.triangleBounds[i * 6 + 0] + this.triangleBounds[i * 6 + 3]) * 0.5D;
+				this.centroids[i * 3 + 1] = (this.triangleBounds[i * 6 + 1] + this.triangleBounds[i * 6 + 4]) * 0.5D;
+				this.centroids[i * 3 + 2] = (this.triangleBounds[i * 6 + 2] + this.triangleBounds[i * 6 + 5]) * 0.5D;
+				
+				this.order[i] = i;
+			}
+			
+			if(triangleCount > 0) {
+				build(0, triangleCount, 0);
+			}
+			
+			final int[] indicesOrdered = new int[indices.length];
+			
+			for(int i = 0; i < triangleCount; i++) {
+				indicesOrdered[i * 3 + 0] = indices[this.order[i] * 3 + 0];
+				indicesOrdered[i * 3 + 1] = indices[this.order[i] * 3 + 1];
+				indicesOrdered[i * 3 + 2] = indices[this.order[i] * 3 + 2];
+			}
+			
+			this.indices = indicesOrdered;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public float[] getBounds() {
+			final float[] bounds = new float[this.nodeCount * 6];
+			
+			for(int i = 0; i < bounds.length; i++) {
+				bounds[i] = (float)(this.bounds[i]);
+			}
+			
+			return bounds;
+		}
+		
+		public void build(final int start, final int end, final int depth) {
+			final int index = doAllocateNode();
+			final int count = end - start;
+			
+			final double[] centroidBounds = new double[6];
+			
+			this.depth = Ints.max(this.depth, depth);
+			
+			doReset(this.bounds, index * 6);
+			doReset(centroidBounds, 0);
+			
+			for(int i = start; i < end; i++) {
+				doUnion(this.bounds, index * 6, this.triangleBounds, i * 6);
+				doUnionPoint(centroidBounds, 0, this.centroids, i * 3);
+			}
+			
+			if(count <= TRIANGLE_COUNT_MAXIMUM) {
+				doCreateLeafNode(index, start, count);
+				
+				return;
+			}
+			
+			final double centroidExtentX = centroidBounds[3] - centroidBounds[0];
+			final double centroidExtentY = centroidBounds[4] - centroidBounds[1];
+			final double centroidExtentZ = centroidBounds[5] - centroidBounds[2];
+			
+			final int axis = centroidExtentX >= centroidExtentY && centroidExtentX >= centroidExtentZ ? 0 : centroidExtentY >= centroidExtentZ ? 1 : 2;
+			
+			if(centroidBounds[axis + 3] - centroidBounds[axis] <= 0.0D) {
+				doCreateTreeNode(index, start, start + count / 2, end, axis, depth);
+				
+				return;
+			}
+			
+			final double centroidMinimum = centroidBounds[axis];
+			final double centroidMaximum = centroidBounds[axis + 3];
+			
+			final double binScale = BIN_COUNT / (centroidMaximum - centroidMinimum);
+			
+			doComputeBins(axis, centroidMinimum, binScale, start, end);
+			
+			final double[] costs = new double[BIN_COUNT - 1];
+			final double[] sweepBounds = new double[6];
+			
+			doReset(sweepBounds, 0);
+			
+			int countL = 0;
+			
+			for(int bin = 0; bin < BIN_COUNT - 1; bin++) {
+				countL += this.binCounts[bin];
+				
+				doUnion(sweepBounds, 0, this.binBounds, bin * 6);
+				
+				costs[bin] = countL * doComputeSurfaceArea(sweepBounds, 0);
+			}
+			
+			doReset(sweepBounds, 0);
+			
+			int countR = 0;
+			
+			for(int bin = BIN_COUNT - 1; bin > 0; bin--) {
+				countR += this.binCounts[bin];
+				
+				doUnion(sweepBounds, 0, this.binBounds, bin * 6);
+				
+				costs[bin - 1] += countR * doComputeSurfaceArea(sweepBounds, 0);
+			}
+			
+			int bestSplit = 0;
+			
+			for(int bin = 1; bin < BIN_COUNT - 1; bin++) {
+				if(costs[bin] < costs[bestSplit]) {
+					bestSplit = bin;
+				}
+			}
+			
+			int middle = start;
+			
+			for(int i = start; i < end; i++) {
+				if(doComputeBin(this.centroids[i * 3 + axis], centroidMinimum, binScale) <= bestSplit) {
+					doSwap(i, middle);
+					
+					middle++;
+				}
+			}
+			
+			if(middle == start || middle == end) {
+				middle = start + count / 2;
+			}
+			
+			doCreateTreeNode(index, start, middle, end, axis, depth);
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private int doAllocateNode() {
+			if(this.nodeCount * 2 == this.nodes.length) {
+				this.bounds = Arrays.copyOf(this.bounds, this.bounds.length * 2);
+				this.nodes = Arrays.copyOf(this.nodes, this.nodes.length * 2);
+			}
+			
+			return this.nodeCount++;
+		}
+		
+		private void doComputeBins(final int axis, final double centroidMinimum, final double binScale, final int start, final int end) {
+			final double[] binBounds = this.binBounds;
+			final double[] centroids = this.centroids;
+			final double[] triangleBounds = this.triangleBounds;
+			
+			final int[] binCounts = this.binCounts;
+			
+			Arrays.fill(binCounts, 0);
+			
+			for(int bin = 0; bin < BIN_COUNT; bin++) {
+				doReset(binBounds, bin * 6);
+			}
+			
+			for(int i = start; i < end; i++) {
+				final int bin = doComputeBin(centroids[i * 3 + axis], centroidMinimum, binScale);
+				
+				binCounts[bin]++;
+				
+				doUnion(binBounds, bin * 6, triangleBounds, i * 6);
+			}
+		}
+		
+		private void doCreateLeafNode(final int index, final int start, final int count) {
+			this.nodes[index * 2 + 0] = start;
+			this.nodes[index * 2 + 1] = count;
+		}
+		
+		private void doCreateTreeNode(final int index, final int start, final int middle, final int end, final int axis, final int depth) {
+			build(start, middle, depth + 1);
+			
+			this.nodes[index * 2 + 0] = this.nodeCount;
+			this.nodes[index * 2 + 1] = -axis - 1;
+			
+			build(middle, end, depth + 1);
+		}
+		
+		private void doSwap(final int i, final int j) {
+			final double[] centroids = this.centroids;
+			final double[] triangleBounds = this.triangleBounds;
+			
+			final int[] order = this.order;
+			
+			final int triangle = order[i];
+			
+			order[i] = order[j];
+			order[j] = triangle;
+			
+			for(int k = 0; k < 6; k++) {
+				final double bound = triangleBounds[i * 6 + k];
+				
+				triangleBounds[i * 6 + k] = triangleBounds[j * 6 + k];
+				triangleBounds[j * 6 + k] = bound;
+			}
+			
+			for(int k = 0; k < 3; k++) {
+				final double centroid = centroids[i * 3 + k];
+				
+				centroids[i * 3 + k] = centroids[j * 3 + k];
+				centroids[j * 3 + k] = centroid;
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static double doComputeSurfaceArea(final double[] bounds, final int offset) {
+			final double x = bounds[offset + 3] - bounds[offset + 0];
+			final double y = bounds[offset + 4] - bounds[offset + 1];
+			final double z = bounds[offset + 5] - bounds[offset + 2];
+			
+			return x < 0.0D || y < 0.0D || z < 0.0D ? 0.0D : 2.0D * (x * y + y * z + z * x);
+		}
+		
+		private static int doComputeBin(final double centroid, final double centroidMinimum, final double binScale) {
+			return Ints.min((int)((centroid - centroidMinimum) * binScale), BIN_COUNT - 1);
+		}
+		
+		private static void doReset(final double[] bounds, final int offset) {
+			bounds[offset + 0] = Doubles.MAX_VALUE;
+			bounds[offset + 1] = Doubles.MAX_VALUE;
+			bounds[offset + 2] = Doubles.MAX_VALUE;
+			bounds[offset + 3] = Doubles.MIN_VALUE;
+			bounds[offset + 4] = Doubles.MIN_VALUE;
+			bounds[offset + 5] = Doubles.MIN_VALUE;
+		}
+		
+		private static void doUnion(final double[] bounds, final int offset, final double[] boundsToAdd, final int offsetToAdd) {
+			bounds[offset + 0] = Doubles.min(bounds[offset + 0], boundsToAdd[offsetToAdd + 0]);
+			bounds[offset + 1] = Doubles.min(bounds[offset + 1], boundsToAdd[offsetToAdd + 1]);
+			bounds[offset + 2] = Doubles.min(bounds[offset + 2], boundsToAdd[offsetToAdd + 2]);
+			bounds[offset + 3] = Doubles.max(bounds[offset + 3], boundsToAdd[offsetToAdd + 3]);
+			bounds[offset + 4] = Doubles.max(bounds[offset + 4], boundsToAdd[offsetToAdd + 4]);
+			bounds[offset + 5] = Doubles.max(bounds[offset + 5], boundsToAdd[offsetToAdd + 5]);
+		}
+		
+		private static void doUnionPoint(final double[] bounds, final int offset, final double[] points, final int offsetPoint) {
+			bounds[offset + 0] = Doubles.min(bounds[offset + 0], points[offsetPoint + 0]);
+			bounds[offset + 1] = Doubles.min(bounds[offset + 1], points[offsetPoint + 1]);
+			bounds[offset + 2] = Doubles.min(bounds[offset + 2], points[offsetPoint + 2]);
+			bounds[offset + 3] = Doubles.max(bounds[offset + 3], points[offsetPoint + 0]);
+			bounds[offset + 4] = Doubles.max(bounds[offset + 4], points[offsetPoint + 1]);
+			bounds[offset + 5] = Doubles.max(bounds[offset + 5], points[offsetPoint + 2]);
+		}
+		
+		private static void doUnionPoint(final double[] bounds, final int offset, final float[] points, final int offsetPoint) {
+			bounds[offset + 0] = Doubles.min(bounds[offset + 0], points[offsetPoint + 0]);
+			bounds[offset + 1] = Doubles.min(bounds[offset + 1], points[offsetPoint + 1]);
+			bounds[offset + 2] = Doubles.min(bounds[offset + 2], points[offsetPoint + 2]);
+			bounds[offset + 3] = Doubles.max(bounds[offset + 3], points[offsetPoint + 0]);
+			bounds[offset + 4] = Doubles.max(bounds[offset + 4], points[offsetPoint + 1]);
+			bounds[offset + 5] = Doubles.max(bounds[offset + 5], points[offsetPoint + 2]);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class FloatList {
+		private float[] array;
+		private int size;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public FloatList() {
+			this.array = new float[1024];
+			this.size = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public float get(final int index) {
+			return this.array[index];
+		}
+		
+		public int size() {
+			return this.size;
+		}
+		
+		public void add(final float value) {
+			if(this.size == this.array.length) {
+				this.array = Arrays.copyOf(this.array, this.array.length * 2);
+			}
+			
+			this.array[this.size++] = value;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class IntList {
+		private int[] array;
+		private int size;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public IntList() {
+			this.array = new int[1024];
+			this.size = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public int get(final int index) {
+			return this.array[index];
+		}
+		
+		public int size() {
+			return this.size;
+		}
+		
+		public void add(final int value) {
+			if(this.size == this.array.length) {
+				this.array = Arrays.copyOf(this.array, this.array.length * 2);
+			}
+			
+			this.array[this.size++] = value;
+		}
+		
+		public void set(final int index, final int value) {
+			this.array[index] = value;
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class OBJReader {
+		private static final double[] POWERS_OF_TEN = {1.0e0D, 1.0e1D, 1.0e2D, 1.0e3D, 1.0e4D, 1.0e5D, 1.0e6D, 1.0e7D, 1.0e8D, 1.0e9D, 1.0e10D, 1.0e11D, 1.0e12D, 1.0e13D, 1.0e14D, 1.0e15D, 1.0e16D, 1.0e17D, 1.0e18D, 1.0e19D, 1.0e20D, 1.0e21D, 1.0e22D};
+		private static final int BUFFER_SIZE = 1 << 16;
+		private static final int UNCLAIMED = -2;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final FloatList normals;
+		private final FloatList positions;
+		private final FloatList textureCoordinates;
+		private final InputStream inputStream;
+		private final IntList extraNexts;
+		private final IntList extraNormals;
+		private final IntList extraPositions;
+		private final IntList extraTextureCoordinates;
+		private final IntList indices;
+		private final IntList vertexNexts;
+		private final IntList vertexNormals;
+		private final IntList vertexTextureCoordinates;
+		private final byte[] buffer;
+		private boolean hasNormals;
+		private boolean hasTextureCoordinates;
+		private int limit;
+		private int lineNumber;
+		private int position;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public OBJReader(final InputStream inputStream) {
+			this.normals = new FloatList();
+			this.positions = new FloatList();
+			this.textureCoordinates = new FloatList();
+			this.inputStream = inputStream;
+			this.extraNexts = new IntList();
+			this.extraNormals = new IntList();
+			this.extraPositions = new IntList();
+			this.extraTextureCoordinates = new IntList();
+			this.indices = new IntList();
+			this.vertexNexts = new IntList();
+			this.vertexNormals = new IntList();
+			this.vertexTextureCoordinates = new IntList();
+			this.buffer = new byte[BUFFER_SIZE];
+			this.hasNormals = false;
+			this.hasTextureCoordinates = false;
+			this.limit = 0;
+			this.lineNumber = 1;
+			this.position = 0;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public TriangleMesh read() throws IOException {
+			while(true) {
+				doSkipWhitespace();
+				
+				final int c = doPeek();
+				
+				if(c == -1) {
+					break;
+				}
+				
+				if(c == '\n') {
+					this.position++;
+					this.lineNumber++;
+					
+					continue;
+				}
+				
+				this.position++;
+				
+				if(c == 'v') {
+					final int d = doPeek();
+					
+					if(doIsWhitespace(d)) {
+						doReadPosition();
+					} else if(d == 't' || d == 'n') {
+						this.position++;
+						
+						if(doIsWhitespace(doPeek())) {
+							if(d == 't') {
+								doReadTextureCoordinates();
+							} else {
+								doReadNormal();
+							}
+						}
+					}
+				} else if(c == 'f' && doIsWhitespace(doPeek())) {
+					doReadFace();
+				}
+				
+				doSkipLine();
+			}
+			
+			return doCreateTriangleMesh();
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private IllegalArgumentException doCreateException() {
+			return new IllegalArgumentException("Malformed OBJ file at line " + this.lineNumber + ".");
+		}
+		
+		private TriangleMesh doCreateTriangleMesh() {
+			final int vertexCountBase = this.positions.size() / 3;
+			final int vertexCountExtra = this.extraPositions.size();
+			final int vertexCount = vertexCountBase + vertexCountExtra;
+			
+			final float[] positions = Arrays.copyOf(this.positions.array, vertexCount * 3);
+			final float[] normals = this.hasNormals ? new float[vertexCount * 3] : new float[0];
+			final float[] textureCoordinates = this.hasTextureCoordinates ? new float[vertexCount * 2] : new float[0];
+			
+			final int[] indices = Arrays.copyOf(this.indices.array, this.indices.size());
+			
+			for(int i = 0; i < vertexCount; i++) {
+				final int vertex = i < vertexCountBase ? i : this.extraPositions.get(i - vertexCountBase);
+				final int normal = i < vertexCountBase ? this.vertexNormals.get(i) : this.extraNormals.get(i - vertexCountBase);
+				final int textureCoordinate = i < vertexCountBase ? this.vertexTextureCoordinates.get(i) : this.extraTextureCoordinates.get(i - vertexCountBase);
+				
+				if(i >= vertexCountBase) {
+					positions[i * 3 + 0] = this.positions.get(vertex * 3 + 0);
+					positions[i * 3 + 1] = this.positions.get(vertex * 3 + 1);
+					positions[i * 3 + 2] = this.positions.get(vertex * 3 + 2);
+				}
+				
+				if(this.hasNormals && normal >= 0) {
+					normals[i * 3 + 0] = this.normals.get(normal * 3 + 0);
+					normals[i * 3 + 1] = this.normals.get(normal * 3 + 1);
+					normals[i * 3 + 2] = this.normals.get(normal * 3 + 2);
+				}
+				
+				if(this.hasTextureCoordinates && textureCoordinate >= 0) {
+					textureCoordinates[i * 2 + 0] = this.textureCoordinates.get(textureCoordinate * 2 + 0);
+					textureCoordinates[i * 2 + 1] = this.textureCoordinates.get(textureCoordinate * 2 + 1);
+				}
+			}
+			
+			for(int i = 0; i < indices.length; i++) {
+				if(indices[i] < 0) {
+					indices[i] = vertexCountBase - indices[i] - 1;
+				}
+			}
+			
+			return new TriangleMesh(new Builder(positions, normals, textureCoordinates, indices));
+		}
+		
+		private double doReadDouble() throws IOException {
+			doSkipWhitespace();
+			
+			int c = doPeek();
+			
+			final boolean isNegative = c == '-';
+			
+			if(c == '-' || c == '+') {
+				this.position++;
+				
+				c = doPeek();
+			}
+			
+			long mantissa = 0L;
+			
+			int digitCount = 0;
+			int exponent = 0;
+			
+			while(c >= '0' && c <= '9') {
+				if(mantissa < 100000000000000000L) {
+					mantissa = mantissa * 10L + (c - '0');
+				} else {
+					exponent++;
+				}
+				
+				digitCount++;
+				
+				this.position++;
+				
+				c = doPeek();
+			}
+			
+			if(c == '.') {
+				this.position++;
+				
+				c = doPeek();
+				
+				while(c >= '0' && c <= '9') {
+					if(mantissa < 100000000000000000L) {
+						mantissa = mantissa * 10L + (c - '0');
+						
+						exponent--;
+					}
+					
+					digitCount++;
+					
+					this.position++;
+					
+					c = doPeek();
+				}
+			}
+			
+			if(digitCount == 0) {
+				throw doCreateException();
+			}
+			
+			if(c == 'e' || c == 'E') {
+				this.position++;
+				
+				exponent += doReadInt();
+			}
+			
+			final double value = exponent < 0 ? mantissa / doComputePowerOfTen(-exponent) : mantissa * doComputePowerOfTen(exponent);
+			
+			return isNegative ? -value : value;
+		}
+		
+		private int doPeek() throws IOException {
+			if(this.position == this.limit) {
+				this.limit = Ints.max(this.inputStream.read(this.buffer, 0, this.buffer.length), 0);
+				this.position = 0;
+				
+				if(this.limit == 0) {
+					return -1;
+				}
+			}
+			
+			return this.buffer[this.position] & 0xFF;
+		}
+		
+		private int doReadIndex(final int count) throws IOException {
+			final int index = doReadInt();
+			final int indexResolved = index > 0 ? index - 1 : count + index;
+			
+			if(index == 0 || indexResolved < 0 || indexResolved >= count) {
+				throw doCreateException();
+			}
+			
+			return indexResolved;
+		}
+		
+		private int doReadInt() throws IOException {
+			int c = doPeek();
+			
+			final boolean isNegative = c == '-';
+			
+			if(c == '-' || c == '+') {
+				this.position++;
+				
+				c = doPeek();
+			}
+			
+			if(c < '0' || c > '9') {
+				throw doCreateException();
+			}
+			
+			int value = 0;
+			
+			while(c >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+				
+				this.position++;
+				
+				c = doPeek();
+			}
+			
+			return isNegative ? -value : value;
+		}
+		
+		private int doResolveVertex(final int position, final int textureCoordinate, final int normal) {
+			this.hasNormals |= normal >= 0;
+			this.hasTextureCoordinates |= textureCoordinate >= 0;
+			
+			final int vertexTextureCoordinate = this.vertexTextureCoordinates.get(position);
+			
+			if(vertexTextureCoordinate == UNCLAIMED) {
+				this.vertexNormals.set(position, normal);
+				this.vertexTextureCoordinates.set(position, textureCoordinate);
+				
+				return position;
+			}
+			
+			if(vertexTextureCoordinate == textureCoordinate && this.vertexNormals.get(position) == normal) {
+				return position;
+			}
+			
+			for(int extra = this.vertexNexts.get(position); extra != -1; extra = this.extraNexts.get(extra)) {
+				if(this.extraTextureCoordinates.get(extra) == textureCoordinate && this.extraNormals.get(extra) == normal) {
+					return -extra - 1;
+				}
+			}
+			
+			final int extra = this.extraPositions.size();
+			
+			this.extraNexts.add(this.vertexNexts.get(position));
+			this.extraNormals.add(normal);
+			this.extraPositions.add(position);
+			this.extraTextureCoordinates.add(textureCoordinate);
+			
+			this.vertexNexts.set(position, extra);
+			
+			return -extra - 1;
+		}
+		
+		private void doReadFace() throws IOException {
+			final int normalCount = this.normals.size() / 3;
+			final int positionCount = this.positions.size() / 3;
+			final int textureCoordinateCount = this.textureCoordinates.size() / 2;
+			
+			int count = 0;
+			int first = 0;
+			int previous = 0;
+			
+			while(true) {
+				doSkipWhitespace();
+				
+				final int c = doPeek();
+				
+				if(c == -1 || c == '\n' || c == '#') {
+					break;
+				}
+				
+				final int position = doReadIndex(positionCount);
+				
+				int normal = -1;
+				int textureCoordinate = -1;
+				
+				if(doPeek() == '/') {
+					this.position++;
+					
+					if(doPeek() != '/') {
+						textureCoordinate = doReadIndex(textureCoordinateCount);
+					}
+					
+					if(doPeek() == '/') {
+						this.position++;
+						
+						normal = doReadIndex(normalCount);
+					}
+				}
+				
+				final int vertex = doResolveVertex(position, textureCoordinate, normal);
+				
+				if(count == 0) {
+					first = vertex;
+				} else if(count >= 2) {
+					this.indices.add(first);
+					this.indices.add(previous);
+					this.indices.add(vertex);
+				}
+				
+				previous = vertex;
+				
+				count++;
+			}
+			
+			if(count < 3) {
+				throw doCreateException();
+			}
+		}
+		
+		private void doReadNormal() throws IOException {
+			this.normals.add((float)(doReadDouble()));
+			this.normals.add((float)(doReadDouble()));
+			this.normals.add((float)(doReadDouble()));
+		}
+		
+		private void doReadPosition() throws IOException {
+			this.positions.add((float)(doReadDouble()));
+			this.positions.add((float)(doReadDouble()));
+			this.positions.add((float)(doReadDouble()));
+			
+			this.vertexNexts.add(-1);
+			this.vertexNormals.add(-1);
+			this.vertexTextureCoordinates.add(UNCLAIMED);
+		}
+		
+		private void doReadTextureCoordinates() throws IOException {
+			this.textureCoordinates.add((float)(doReadDouble()));
+			
+			doSkipWhitespace();
+			
+			this.textureCoordinates.add(doIsNumber(doPeek()) ? (float)(doReadDouble()) : 0.0F);
+		}
+		
+		private void doSkipLine() throws IOException {
+			for(int c = doPeek(); c != -1 && c != '\n'; c = doPeek()) {
+				this.position++;
+			}
+		}
+		
+		private void doSkipWhitespace() throws IOException {
+			while(doIsWhitespace(doPeek())) {
+				this.position++;
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static boolean doIsNumber(final int c) {
+			return c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.';
+		}
+		
+		private static boolean doIsWhitespace(final int c) {
+			return c == ' ' || c == '\t' || c == '\r';
+		}
+		
+		private static double doComputePowerOfTen(final int exponent) {
+			return exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[exponent] : Doubles.pow(10.0D, exponent);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class PLYElement {
+		private final IntList countTypes;
+		private final IntList types;
+		private final List<String> propertyNames;
+		private final String name;
+		private final int count;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public PLYElement(final String name, final int count) {
+			this.countTypes = new IntList();
+			this.types = new IntList();
+			this.propertyNames = new ArrayList<>();
+			this.name = name;
+			this.count = count;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public String getName() {
+			return this.name;
+		}
+		
+		public boolean isList(final int property) {
+			return this.countTypes.get(property) != -1;
+		}
+		
+		public int getCount() {
+			return this.count;
+		}
+		
+		public int getCountType(final int property) {
+			return this.countTypes.get(property);
+		}
+		
+		public int getOffset(final int property) {
+			int offset = 0;
+			
+			for(int i = 0; i < property; i++) {
+				if(isList(i)) {
+					return -1;
+				}
+				
+				offset += PLYReader.SIZES[this.types.get(i)];
+			}
+			
+			return offset;
+		}
+		
+		public int getPropertyCount() {
+			return this.propertyNames.size();
+		}
+		
+		public int getStride() {
+			return getOffset(getPropertyCount());
+		}
+		
+		public int getType(final int property) {
+			return this.types.get(property);
+		}
+		
+		public int indexOf(final String... propertyNames) {
+			for(final String propertyName : propertyNames) {
+				final int property = this.propertyNames.indexOf(propertyName);
+				
+				if(property != -1) {
+					return property;
+				}
+			}
+			
+			return -1;
+		}
+		
+		public void addProperty(final String propertyName, final int countType, final int type) {
+			this.countTypes.add(countType);
+			this.types.add(type);
+			this.propertyNames.add(propertyName);
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class PLYReader {
+		public static final int[] SIZES = {1, 1, 2, 2, 4, 4, 4, 8};
+		public static final int TYPE_CHAR = 0;
+		public static final int TYPE_DOUBLE = 7;
+		public static final int TYPE_FLOAT = 6;
+		public static final int TYPE_INT = 4;
+		public static final int TYPE_SHORT = 2;
+		public static final int TYPE_UCHAR = 1;
+		public static final int TYPE_UINT = 5;
+		public static final int TYPE_USHORT = 3;
+		private static final int CHUNK_SIZE = 1 << 16;
+		private static final int HEADER_SIZE_MAXIMUM = 1 << 20;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private final FileChannel fileChannel;
+		private final List<PLYElement> elements;
+		private final String filename;
+		private ByteOrder byteOrder;
+		private long position;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public PLYReader(final FileChannel fileChannel, final String filename) {
+			this.fileChannel = fileChannel;
+			this.elements = new ArrayList<>();
+			this.filename = filename;
+			this.byteOrder = ByteOrder.LITTLE_ENDIAN;
+			this.position = 0L;
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public TriangleMesh read() throws IOException {
+			doReadHeader();
+			
+			float[] positions = null;
+			float[] normals = new float[0];
+			float[] textureCoordinates = new float[0];
+			
+			int[] indices = null;
+			
+			for(final PLYElement element : this.elements) {
+				if(element.getName().equals("vertex") && positions == null) {
+					final int vertexCount = element.getCount();
+					
+					positions = new float[vertexCount * 3];
+					normals = element.indexOf("nx") != -1 && element.indexOf("ny") != -1 && element.indexOf("nz") != -1 ? new float[vertexCount * 3] : normals;
+					textureCoordinates = element.indexOf("u", "s", "texture_u", "texture_s") != -1 && element.indexOf("v", "t", "texture_v", "texture_t") != -1 ? new float[vertexCount * 2] : textureCoordinates;
+					
+					doReadVertices(element, positions, normals, textureCoordinates);
+				} else if(element.getName().equals("face") && indices == null) {
+					indices = doReadFaces(element);
+				} else {
+					doSkip(element);
+				}
+				
+				if(positions != null && indices != null) {
+					break;
+				}
+			}
+			
+			if(positions == null || indices == null) {
+				throw new IllegalArgumentException("The file " + this.filename + " has no vertex or face element.");
+			}
+			
+			return new TriangleMesh(new Builder(positions, normals, textureCoordinates, indices));
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private ByteBuffer doRead(final long position, final int length) {
+			final ByteBuffer byteBuffer = ByteBuffer.allocate(length).order(this.byteOrder);
+			
+			try {
+				while(byteBuffer.hasRemaining()) {
+					if(this.fileChannel.read(byteBuffer, position + byteBuffer.position()) < 0) {
+						throw new IllegalArgumentException("The file " + this.filename + " is truncated.");
+					}
+				}
+			} catch(final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			
+			byteBuffer.flip();
+			
+			return byteBuffer;
+		}
+		
+		private boolean doReadFaceChunk(final PLYElement element, final int property, final int stride, final int[] indices, final int chunk) {
+			final int start = chunk * CHUNK_SIZE;
+			final int end = Ints.min(start + CHUNK_SIZE, element.getCount());
+			final int offset = element.getOffset(property);
+			final int countType = element.getCountType(property);
+			final int countSize = SIZES[countType];
+			final int type = element.getType(property);
+			final int size = SIZES[type];
+			
+			final ByteBuffer byteBuffer = doRead(this.position + (long)(start) * stride, (end - start) * stride);
+			
+			for(int i = start, j = offset; i < end; i++, j += stride) {
+				if(doGetInt(byteBuffer, j, countType) != 3) {
+					return false;
+				}
+				
+				indices[i * 3 + 0] = doGetInt(byteBuffer, j + countSize + size * 0, type);
+				indices[i * 3 + 1] = doGetInt(byteBuffer, j + countSize + size * 1, type);
+				indices[i * 3 + 2] = doGetInt(byteBuffer, j + countSize + size * 2, type);
+			}
+			
+			return true;
+		}
+		
+		private int[] doReadFaces(final PLYElement element) throws IOException {
+			final int property = element.indexOf("vertex_indices", "vertex_index");
+			
+			if(property == -1 || !element.isList(property) || element.getType(property) == TYPE_FLOAT || element.getType(property) == TYPE_DOUBLE) {
+				throw new IllegalArgumentException("The file " + this.filename + " has no integer vertex_indices list in its face element.");
+			}
+			
+			final int faceCount = element.getCount();
+			
+			int stride = 0;
+			
+			for(int i = 0; i < element.getPropertyCount(); i++) {
+				if(i == property) {
+					stride += SIZES[element.getCountType(i)] + SIZES[element.getType(i)] * 3;
+				} else if(element.isList(i)) {
+					stride = -1;
+					
+					break;
+				} else {
+					stride += SIZES[element.getType(i)];
+				}
+			}
+			
+			if(stride != -1 && element.getOffset(property) != -1 && this.position + (long)(faceCount) * stride <= this.fileChannel.size()) {
+				final int[] indices = new int[faceCount * 3];
+				
+				final int chunkStride = stride;
+				
+				if(IntStream.range(0, (faceCount + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().allMatch(chunk -> doReadFaceChunk(element, property, chunkStride, indices, chunk))) {
+					this.position += (long)(faceCount) * stride;
+					
+					return indices;
+				}
+			}
+			
+			final IntList indices = new IntList();
+			
+			doReadSequentially(element, property, indices);
+			
+			return Arrays.copyOf(indices.array, indices.size());
+		}
+		
+		private long doFill(final ByteBuffer byteBuffer, final long position, final int length) throws IOException {
+			if(byteBuffer.remaining() >= length) {
+				return position;
+			}
+			
+			byteBuffer.compact();
+			
+			long currentPosition = position;
+			
+			while(byteBuffer.position() < length) {
+				final int count = this.fileChannel.read(byteBuffer, currentPosition);
+				
+				if(count < 0) {
+					throw new IllegalArgumentException("The file " + this.filename + " is truncated.");
+				}
+				
+				currentPosition += count;
+			}
+			
+			byteBuffer.flip();
+			
+			return currentPosition;
+		}
+		
+		private void doReadHeader() throws IOException {
+			final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+			
+			byteBuffer.flip();
+			
+			final StringBuilder stringBuilder = new StringBuilder();
+			
+			PLYElement element = null;
+			
+			int lineNumber = 0;
+			
+			while(true) {
+				if(!byteBuffer.hasRemaining()) {
+					if(this.position >= HEADER_SIZE_MAXIMUM) {
+						throw doCreateException(lineNumber + 1);
+					}
+					
+					byteBuffer.clear();
+					
+					if(this.fileChannel.read(byteBuffer, this.position) <= 0) {
+						throw doCreateException(lineNumber + 1);
+					}
+					
+					byteBuffer.flip();
+				}
+				
+				final char c = (char)(byteBuffer.get() & 0xFF);
+				
+				this.position++;
+				
+				if(c != '\n') {
+					stringBuilder.append(c);
+					
+					continue;
+				}
+				
+				final String[] tokens = stringBuilder.toString().trim().split("\\s+");
+				
+				stringBuilder.setLength(0);
+				
+				lineNumber++;
+				
+				if(lineNumber == 1) {
+					if(!tokens[0].equals("ply") || tokens.length != 1) {
+						throw new IllegalArgumentException("The file " + this.filename + " is not a PLY file.");
+					}
+				} else if(tokens[0].equals("format") && tokens.length == 3) {
+					if(tokens[1].equals("binary_little_endian")) {
+						this.byteOrder = ByteOrder.LITTLE_ENDIAN;
+					} else if(tokens[1].equals("binary_big_endian")) {
+						this.byteOrder = ByteOrder.BIG_ENDIAN;
+					} else {
+						throw new IllegalArgumentException("The file " + this.filename + " uses the unsupported PLY format " + tokens[1] + ".");
+					}
+				} else if(tokens[0].equals("element") && tokens.length == 3) {
+					final int count = doParseCount(tokens[2], lineNumber);
+					
+					element = new PLYElement(tokens[1], count);
+					
+					this.elements.add(element);
+				} else if(tokens[0].equals("property") && tokens.length == 3 && element != null) {
+					element.addProperty(tokens[2], -1, doParseType(tokens[1], lineNumber));
+				} else if(tokens[0].equals("property") && tokens.length == 5 && tokens[1].equals("list") && element != null) {
+					final int countType = doParseType(tokens[2], lineNumber);
+					
+					if(countType == TYPE_FLOAT || countType == TYPE_DOUBLE) {
+						throw doCreateException(lineNumber);
+					}
+					
+					element.addProperty(tokens[4], countType, doParseType(tokens[3], lineNumber));
+				} else if(tokens[0].equals("end_header")) {
+					return;
+				} else if(!tokens[0].equals("comment") && !tokens[0].equals("obj_info") && !tokens[0].isEmpty()) {
+					throw doCreateException(lineNumber);
+				}
+			}
+		}
+		
+		private void doReadSequentially(final PLYElement element, final int property, final IntList indices) throws IOException {
+			final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE).order(this.byteOrder);
+			
+			byteBuffer.flip();
+			
+			final int[] polygon = new int[BUFFER_SIZE / 8];
+			
+			long position = this.position;
+			
+			for(int i = 0; i < element.getCount(); i++) {
+				for(int j = 0; j < element.getPropertyCount(); j++) {
+					final int type = element.getType(j);
+					final int size = SIZES[type];
+					
+					if(!element.isList(j)) {
+						position = doFill(byteBuffer, position, size);
+						
+						byteBuffer.position(byteBuffer.position() + size);
+						
+						continue;
+					}
+					
+					final int countType = element.getCountType(j);
+					
+					position = doFill(byteBuffer, position, SIZES[countType]);
+					
+					final int count = doGetInt(byteBuffer, byteBuffer.position(), countType);
+					
+					byteBuffer.position(byteBuffer.position() + SIZES[countType]);
+					
+					if(count < 0 || count > polygon.length) {
+						throw new IllegalArgumentException("The file " + this.filename + " has a list of unsupported length " + count + " in element " + element.getName() + ".");
+					}
+					
+					position = doFill(byteBuffer, position, count * size);
+					
+					if(j == property) {
+						for(int k = 0; k < count; k++) {
+							polygon[k] = doGetInt(byteBuffer, byteBuffer.position() + k * size, type);
+						}
+						
+						for(int k = 2; k < count; k++) {
+							indices.add(polygon[0]);
+							indices.add(polygon[k - 1]);
+							indices.add(polygon[k]);
+						}
+					}
+					
+					byteBuffer.position(byteBuffer.position() + count * size);
+				}
+			}
+			
+			this.position = position - byteBuffer.remaining();
+		}
+		
+		private void doReadVertices(final PLYElement element, final float[] positions, final float[] normals, final float[] textureCoordinates) {
+			final int stride = element.getStride();
+			
+			if(stride == -1) {
+				throw new IllegalArgumentException("The file " + this.filename + " has list properties in its vertex element.");
+			}
+			
+			final int[] properties = {element.indexOf("x"), element.indexOf("y"), element.indexOf("z"), element.indexOf("nx"), element.indexOf("ny"), element.indexOf("nz"), element.indexOf("u", "s", "texture_u", "texture_s"), element.indexOf("v", "t", "texture_v", "texture_t")};
+			
+			if(properties[0] == -1 || properties[1] == -1 || properties[2] == -1) {
+				throw new IllegalArgumentException("The file " + this.filename + " has no x, y and z properties in its vertex element.");
+			}
+			
+			final int[] offsets = new int[properties.length];
+			final int[] types = new int[properties.length];
+			
+			for(int i = 0; i < properties.length; i++) {
+				offsets[i] = properties[i] != -1 ? element.getOffset(properties[i]) : -1;
+				types[i] = properties[i] != -1 ? element.getType(properties[i]) : -1;
+			}
+			
+			final boolean hasNormals = normals.length > 0;
+			final boolean hasTextureCoordinates = textureCoordinates.length > 0;
+			
+			final int vertexCount = element.getCount();
+			
+			IntStream.range(0, (vertexCount + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+				final int start = chunk * CHUNK_SIZE;
+				final int end = Ints.min(start + CHUNK_SIZE, vertexCount);
+				
+				final ByteBuffer byteBuffer = doRead(this.position + (long)(start) * stride, (end - start) * stride);
+				
+				for(int i = start, j = 0; i < end; i++, j += stride) {
+					positions[i * 3 + 0] = doGetFloat(byteBuffer, j + offsets[0], types[0]);
+					positions[i * 3 + 1] = doGetFloat(byteBuffer, j + offsets[1], types[1]);
+					positions[i * 3 + 2] = doGetFloat(byteBuffer, j + offsets[2], types[2]);
+					
+					if(hasNormals) {
+						normals[i * 3 + 0] = doGetFloat(byteBuffer, j + offsets[3], types[3]);
+						normals[i * 3 + 1] = doGetFloat(byteBuffer, j + offsets[4], types[4]);
+						normals[i * 3 + 2] = doGetFloat(byteBuffer, j + offsets[5], types[5]);
+					}
+					
+					if(hasTextureCoordinates) {
+						textureCoordinates[i * 2 + 0] = doGetFloat(byteBuffer, j + offsets[6], types[6]);
+						textureCoordinates[i * 2 + 1] = doGetFloat(byteBuffer, j + offsets[7], types[7]);
+					}
+				}
+			});
+			
+			this.position += (long)(vertexCount) * stride;
+		}
+		
+		private void doSkip(final PLYElement element) throws IOException {
+			final int stride = element.getStride();
+			
+			if(stride != -1) {
+				this.position += (long)(element.getCount()) * stride;
+			} else {
+				doReadSequentially(element, -1, null);
+			}
+		}
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		private static IllegalArgumentException doCreateException(final int lineNumber) {
+			return new IllegalArgumentException("Malformed PLY header at line " + lineNumber + ".");
+		}
+		
+		private static float doGetFloat(final ByteBuffer byteBuffer, final int index, final int type) {
+			switch(type) {
+				case TYPE_FLOAT:
+					return byteBuffer.getFloat(index);
+				case TYPE_DOUBLE:
+					return (float)(byteBuffer.getDouble(index));
+				default:
+					return doGetInt(byteBuffer, index, type);
+			}
+		}
+		
+		private static int doGetInt(final ByteBuffer byteBuffer, final int index, final int type) {
+			switch(type) {
+				case TYPE_CHAR:
+					return byteBuffer.get(index);
+				case TYPE_UCHAR:
+					return byteBuffer.get(index) & 0xFF;
+				case TYPE_SHORT:
+					return byteBuffer.getShort(index);
+				case TYPE_USHORT:
+					return byteBuffer.getShort(index) & 0xFFFF;
+				case TYPE_INT:
+				case TYPE_UINT:
+					return byteBuffer.getInt(index);
+				case TYPE_FLOAT:
+					return (int)(byteBuffer.getFloat(index));
+				default:
+					return (int)(byteBuffer.getDouble(index));
+			}
+		}
+		
+		private static int doParseCount(final String string, final int lineNumber) {
+			try {
+				return Ints.requireRange(Integer.parseInt(string), 0, Integer.MAX_VALUE / 3, "count");
+			} catch(final IllegalArgumentException e) {
+				throw doCreateException(lineNumber);
+			}
+		}
+		
+		private static int doParseType(final String string, final int lineNumber) {
+			switch(string) {
+				case "char":
+				case "int8":
+					return TYPE_CHAR;
+				case "uchar":
+				case "uint8":
+					return TYPE_UCHAR;
+				case "short":
+				case "int16":
+					return TYPE_SHORT;
+				case "ushort":
+				case "uint16":
+					return TYPE_USHORT;
+				case "int":
+				case "int32":
+					return TYPE_INT;
+				case "uint":
+				case "uint32":
+					return TYPE_UINT;
+				case "float":
+				case "float32":
+					return TYPE_FLOAT;
+				case "double":
+				case "float64":
+					return TYPE_DOUBLE;
+				default:
+					throw doCreateException(lineNumber);
+			}
+		}
+	}
+	
+	////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private static final class Stack {
+		private final Hit hit;
+		private final int[] indices;
+		
+		////////////////////////////////////////////////////////////////////////////////////////////////////
+		
+		public Stack(final int capacity) {
+			this.hit = new Hit();
+			this.indices = new int[capacity];
+		}
+	}
+}
\ No newline at end of file